@@ -5,23 +5,34 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
+import com.kiranastore.database.DatabaseConnection;
 import com.kiranastore.database.DatabaseInitializer;
 import com.kiranastore.controller.MainDashboardController;
+import com.kiranastore.service.OfflineInvoiceQueue;
+import com.kiranastore.service.SalesAnalyticsService;
+import com.kiranastore.service.ServiceExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 public class KiranaStoreApp extends Application {
     private static final Logger logger = LoggerFactory.getLogger(KiranaStoreApp.class);
 
+    @Override
+    public void init() {
+        // Runs on the launcher thread, so schema checks do not hold up the JavaFX thread
+        DatabaseInitializer.initialize();
+        logger.info("Database initialized successfully");
+        // Opens the invoice journal and starts posting anything left from the last run
+        OfflineInvoiceQueue.get();
+        SalesAnalyticsService.preload();
+    }
+
     @Override
     public void start(Stage primaryStage) throws IOException {
         try {
-            // Initialize database
-            DatabaseInitializer.initialize();
-            logger.info("Database initialized successfully");
-
             // Load main dashboard
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/MainDashboard.fxml"));
             Scene scene = new Scene(loader.load(), 1200, 800);
@@ -57,10 +68,16 @@ public class KiranaStoreApp extends Application {
     @Override
     public void stop() throws Exception {
         super.stop();
+        ServiceExecutor.shutdown();
+        OfflineInvoiceQueue.shutdown();
+        DatabaseConnection.closeConnection();
         logger.info("Application closed");
     }
 
     public static void main(String[] args) {
+        if (args.length > 0 && "--rebuild-reports".equals(args[0])) {
+            System.exit(ReportRebuildTool.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
         launch(args);
     }
 }
@@ -0,0 +1,54 @@
+package com.kiranastore;
+
+import com.kiranastore.database.DatabaseConnection;
+import com.kiranastore.database.DatabaseInitializer;
+import com.kiranastore.service.SalesReportRebuildJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Headless entry point that rebuilds sales_reports for a date range:
+ * {@code ReportRebuildTool <start-date> <end-date>} with dates in yyyy-MM-dd form.
+ */
+public class ReportRebuildTool {
+    private static final Logger logger = LoggerFactory.getLogger(ReportRebuildTool.class);
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    public static int run(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: ReportRebuildTool <start-date> <end-date>  (dates as yyyy-MM-dd)");
+            return 2;
+        }
+
+        LocalDate startDate;
+        LocalDate endDate;
+        try {
+            startDate = LocalDate.parse(args[0]);
+            endDate = LocalDate.parse(args[1]);
+        } catch (DateTimeParseException e) {
+            System.err.println("Invalid date: " + e.getParsedString());
+            return 2;
+        }
+
+        try {
+            DatabaseInitializer.initialize();
+            SalesReportRebuildJob job = new SalesReportRebuildJob(startDate, endDate);
+            Runtime.getRuntime().addShutdownHook(new Thread(job::cancel));
+            int days = job.run((done, total, through) ->
+                logger.info("Rebuilt {}/{} days (through {})", done, total, through));
+            System.out.println("Rebuilt " + days + " day(s) with sales between " + startDate + " and " + endDate);
+            return 0;
+        } catch (Exception e) {
+            logger.error("Sales report rebuild failed", e);
+            return 1;
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.kiranastore;
+
+import com.kiranastore.config.AppConfig;
+import com.kiranastore.dao.InvoiceDAO;
+import com.kiranastore.database.DatabaseConnection;
+import com.kiranastore.database.DatabaseInitializer;
+import com.kiranastore.model.AbcClass;
+import com.kiranastore.model.DailySales;
+import com.kiranastore.model.Money;
+import com.kiranastore.model.ProductVelocity;
+import com.kiranastore.model.SalesFilter;
+import com.kiranastore.model.VelocityMetric;
+import com.kiranastore.service.SalesAnalyticsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Headless check that the in-memory sales column store agrees with the invoice tables:
+ * {@code SalesStoreCheckTool <start-date> <end-date>} with dates in yyyy-MM-dd form.
+ * Compares per-day sales, profit and transaction counts from the store against
+ * {@link InvoiceDAO#getDailyTotals}, prints every day that differs and how long each
+ * side took, and exits with 1 if any day differs or the store cannot be loaded.
+ *
+ * Then checks the best-seller windows ending today, whatever the dates given: every
+ * product's units, revenue, profit and ABC class against {@link InvoiceDAO#getProductSales}
+ * with the classes worked out again from scratch, and each metric's top list against
+ * the same rows sorted.
+ */
+public class SalesStoreCheckTool {
+    private static final Logger logger = LoggerFactory.getLogger(SalesStoreCheckTool.class);
+    private static final int STORE_RUNS = 5;
+    private static final int TOP_PRODUCTS = 100;
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    public static int run(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: SalesStoreCheckTool <start-date> <end-date>  (dates as yyyy-MM-dd)");
+            return 2;
+        }
+
+        LocalDate startDate;
+        LocalDate endDate;
+        try {
+            startDate = LocalDate.parse(args[0]);
+            endDate = LocalDate.parse(args[1]);
+        } catch (DateTimeParseException e) {
+            System.err.println("Invalid date: " + e.getParsedString());
+            return 2;
+        }
+
+        try {
+            DatabaseInitializer.initialize();
+            SalesAnalyticsService analytics = new SalesAnalyticsService();
+            SalesFilter filter = SalesFilter.between(startDate, endDate);
+
+            long loadStart = System.nanoTime();
+            List<DailySales> fromStore = analytics.getDailyTotals(filter);
+            if (!analytics.isReady()) {
+                System.err.println("The sales column store could not be loaded; see the log");
+                return 1;
+            }
+            System.out.println("Loaded the column store and queried it in " + millis(loadStart) + " ms");
+
+            // Best of a few runs, so the figure is the query rather than JIT warm-up
+            long storeNanos = Long.MAX_VALUE;
+            for (int run = 0; run < STORE_RUNS; run++) {
+                long start = System.nanoTime();
+                fromStore = analytics.getDailyTotals(filter);
+                storeNanos = Math.min(storeNanos, System.nanoTime() - start);
+            }
+
+            long sqlStart = System.nanoTime();
+            List<DailySales> fromDatabase = new InvoiceDAO().getDailyTotals(startDate, endDate);
+            long sqlMillis = millis(sqlStart);
+
+            Map<LocalDate, DailySales> storeDays = byDate(fromStore);
+            Map<LocalDate, DailySales> databaseDays = byDate(fromDatabase);
+            Set<LocalDate> allDays = new TreeSet<>(storeDays.keySet());
+            allDays.addAll(databaseDays.keySet());
+
+            int mismatches = 0;
+            for (LocalDate day : allDays) {
+                DailySales store = storeDays.get(day);
+                DailySales database = databaseDays.get(day);
+                if (!sameTotals(store, database)) {
+                    mismatches++;
+                    System.out.println(day + ": store " + describe(store) + ", database " + describe(database));
+                }
+            }
+
+            System.out.println("Compared " + allDays.size() + " day(s) with sales between " + startDate + " and " + endDate
+                + ": " + mismatches + " mismatch(es)");
+            System.out.println("Column store: " + storeNanos / 1_000_000 + " ms (best of " + STORE_RUNS + "), grouped queries: "
+                + sqlMillis + " ms");
+            mismatches += checkVelocity(analytics, new InvoiceDAO());
+            return mismatches == 0 ? 0 : 1;
+        } catch (Exception e) {
+            logger.error("Sales column store check failed", e);
+            return 1;
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+    }
+
+    private static int checkVelocity(SalesAnalyticsService analytics, InvoiceDAO invoiceDAO) {
+        LocalDate today = LocalDate.now();
+        // Built on first use; build it now so the index timings below are queries only
+        analytics.getTopProducts(VelocityMetric.QUANTITY, SalesAnalyticsService.getVelocityWindows().get(0), 1);
+        int mismatches = 0;
+        for (int windowDays : SalesAnalyticsService.getVelocityWindows()) {
+            long start = System.nanoTime();
+            List<ProductVelocity> catalog = analytics.getAbcClassification(windowDays);
+            long indexMillis = millis(start);
+            start = System.nanoTime();
+            List<ProductVelocity> sold = invoiceDAO.getProductSales(today.minusDays(windowDays - 1), today);
+            long sqlMillis = millis(start);
+
+            Map<Integer, ProductVelocity> expected = new HashMap<>();
+            for (ProductVelocity product : sold) {
+                expected.put(product.getProductId(), product);
+            }
+            Map<Integer, AbcClass> expectedClasses = classify(sold);
+            int windowMismatches = 0;
+            for (ProductVelocity product : catalog) {
+                ProductVelocity database = expected.remove(product.getProductId());
+                long quantity = database != null ? database.getQuantity() : 0;
+                Money revenue = database != null ? database.getRevenue() : Money.ZERO;
+                Money profit = database != null ? database.getProfit() : Money.ZERO;
+                AbcClass abcClass = expectedClasses.getOrDefault(product.getProductId(), AbcClass.C);
+                if (product.getQuantity() != quantity || !product.getRevenue().equals(revenue)
+                        || !product.getProfit().equals(profit) || product.getAbcClass() != abcClass) {
+                    windowMismatches++;
+                    System.out.println(windowDays + " days, product #" + product.getProductId() + ": index "
+                        + product.getQuantity() + " units, " + product.getRevenue().format() + ", "
+                        + product.getProfit().format() + ", class " + product.getAbcClass() + "; database "
+                        + quantity + " units, " + revenue.format() + ", " + profit.format() + ", class " + abcClass);
+                }
+            }
+            for (ProductVelocity missing : expected.values()) {
+                windowMismatches++;
+                System.out.println(windowDays + " days, product #" + missing.getProductId() + ": sold "
+                    + missing.getQuantity() + " units but missing from the index");
+            }
+
+            for (VelocityMetric metric : VelocityMetric.values()) {
+                List<Integer> top = new ArrayList<>();
+                for (ProductVelocity product : analytics.getTopProducts(metric, windowDays, TOP_PRODUCTS)) {
+                    top.add(product.getProductId());
+                }
+                List<Integer> expectedTop = new ArrayList<>();
+                for (ProductVelocity product : ranked(sold, metric)) {
+                    if (expectedTop.size() == TOP_PRODUCTS) {
+                        break;
+                    }
+                    expectedTop.add(product.getProductId());
+                }
+                if (!top.equals(expectedTop)) {
+                    windowMismatches++;
+                    System.out.println(windowDays + " days, top by " + metric + ": index " + top
+                        + ", database " + expectedTop);
+                }
+            }
+
+            System.out.println("Best sellers over " + windowDays + " days: " + sold.size() + " product(s) sold, "
+                + windowMismatches + " mismatch(es); index " + indexMillis + " ms, grouped query " + sqlMillis + " ms");
+            mismatches += windowMismatches;
+        }
+        return mismatches;
+    }
+
+    /**
+     * Sold products best first by the metric, ties by ID, as the index ranks them.
+     * Products whose units net to zero are left out, as the index leaves them out.
+     */
+    private static List<ProductVelocity> ranked(List<ProductVelocity> sold, VelocityMetric metric) {
+        Comparator<ProductVelocity> byMetric;
+        switch (metric) {
+            case QUANTITY:
+                byMetric = Comparator.comparingLong(ProductVelocity::getQuantity);
+                break;
+            case REVENUE:
+                byMetric = Comparator.comparing(ProductVelocity::getRevenue);
+                break;
+            default:
+                byMetric = Comparator.comparing(ProductVelocity::getProfit);
+                break;
+        }
+        List<ProductVelocity> ranked = new ArrayList<>();
+        for (ProductVelocity product : sold) {
+            if (product.getQuantity() != 0) {
+                ranked.add(product);
+            }
+        }
+        ranked.sort(byMetric.reversed().thenComparingInt(ProductVelocity::getProductId));
+        return ranked;
+    }
+
+    /**
+     * ABC classes by cumulative share of revenue, worked out independently of the index.
+     */
+    private static Map<Integer, AbcClass> classify(List<ProductVelocity> sold) {
+        int classAPercent = AppConfig.get().getInt("reports.abc.classAPercent", 80);
+        int classBPercent = AppConfig.get().getInt("reports.abc.classBPercent", 95);
+        List<ProductVelocity> byRevenue = ranked(sold, VelocityMetric.REVENUE);
+        long totalRevenue = 0;
+        for (ProductVelocity product : byRevenue) {
+            totalRevenue += Math.max(0, product.getRevenue().getPaise());
+        }
+        Map<Integer, AbcClass> classes = new HashMap<>();
+        long cumulative = 0;
+        for (ProductVelocity product : byRevenue) {
+            long revenue = product.getRevenue().getPaise();
+            double shareBefore = totalRevenue == 0 ? 100 : cumulative * 100.0 / totalRevenue;
+            classes.put(product.getProductId(), revenue <= 0 ? AbcClass.C
+                : shareBefore < classAPercent ? AbcClass.A
+                : shareBefore < classBPercent ? AbcClass.B : AbcClass.C);
+            cumulative += Math.max(0, revenue);
+        }
+        return classes;
+    }
+
+    private static Map<LocalDate, DailySales> byDate(List<DailySales> days) {
+        Map<LocalDate, DailySales> byDate = new TreeMap<>();
+        for (DailySales day : days) {
+            byDate.put(day.getDate(), day);
+        }
+        return byDate;
+    }
+
+    private static boolean sameTotals(DailySales a, DailySales b) {
+        if (a == null || b == null) {
+            return false;
+        }
+        return a.getTotalSales().equals(b.getTotalSales())
+            && a.getTotalProfit().equals(b.getTotalProfit())
+            && a.getTotalTransactions() == b.getTotalTransactions();
+    }
+
+    private static String describe(DailySales day) {
+        if (day == null) {
+            return "missing";
+        }
+        return day.getTotalSales().format() + " sales, " + day.getTotalProfit().format() + " profit, "
+            + day.getTotalTransactions() + " transaction(s)";
+    }
+
+    private static long millis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,89 @@
+package com.kiranastore.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Runtime settings. Values are read from {@code kiranastore.properties} in the
+ * working directory (or the file named by {@code -Dkiranastore.config}), and any
+ * {@code -Dkiranastore.<key>} system property overrides the file.
+ */
+public class AppConfig {
+    private static final Logger logger = LoggerFactory.getLogger(AppConfig.class);
+
+    private static final String CONFIG_FILE_PROPERTY = "kiranastore.config";
+    private static final String DEFAULT_CONFIG_FILE = "kiranastore.properties";
+    private static final String SYSTEM_PROPERTY_PREFIX = "kiranastore.";
+
+    private static final AppConfig INSTANCE = load();
+
+    private final Properties properties;
+
+    private AppConfig(Properties properties) {
+        this.properties = properties;
+    }
+
+    public static AppConfig get() {
+        return INSTANCE;
+    }
+
+    private static AppConfig load() {
+        Properties properties = new Properties();
+        Path configFile = Paths.get(System.getProperty(CONFIG_FILE_PROPERTY, DEFAULT_CONFIG_FILE));
+        if (Files.isRegularFile(configFile)) {
+            try (InputStream in = Files.newInputStream(configFile)) {
+                properties.load(in);
+                logger.info("Loaded configuration from {}", configFile.toAbsolutePath());
+            } catch (IOException e) {
+                logger.error("Error reading configuration file {}", configFile, e);
+            }
+        }
+        return new AppConfig(properties);
+    }
+
+    public String getString(String key, String defaultValue) {
+        String value = System.getProperty(SYSTEM_PROPERTY_PREFIX + key);
+        if (value == null) {
+            value = properties.getProperty(key);
+        }
+        return value != null ? value.trim() : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid integer for {}: {}", key, value);
+            return defaultValue;
+        }
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid number for {}: {}", key, value);
+            return defaultValue;
+        }
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value != null ? Boolean.parseBoolean(value) : defaultValue;
+    }
+}
@@ -1,28 +1,43 @@
 package com.kiranastore.controller;
 
+import com.kiranastore.config.AppConfig;
 import com.kiranastore.model.InvoiceItem;
+import com.kiranastore.model.Money;
 import com.kiranastore.model.Product;
 import com.kiranastore.service.InvoiceService;
 import com.kiranastore.service.ProductService;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.VBox;
+import javafx.util.StringConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
 
-public class BillingController {
+public class BillingController implements DisposableView {
     private static final Logger logger = LoggerFactory.getLogger(BillingController.class);
+    private static final int SUGGESTION_LIMIT = 15;
+    private static final long DEFAULT_SCAN_MAX_KEY_GAP_MS = 50;
+    private static final int DEFAULT_SCAN_MIN_LENGTH = 4;
+
+    @FXML
+    private ScrollPane billingRoot;
 
     @FXML
     private ComboBox<Product> productCombo;
 
+    @FXML
+    private Label scanStatusLabel;
+
     @FXML
     private TextField quantityField;
 
@@ -45,10 +60,10 @@ public class BillingController {
     private TableColumn<InvoiceItem, Integer> quantityColumn;
 
     @FXML
-    private TableColumn<InvoiceItem, Double> unitPriceColumn;
+    private TableColumn<InvoiceItem, Money> unitPriceColumn;
 
     @FXML
-    private TableColumn<InvoiceItem, Double> lineTotalColumn;
+    private TableColumn<InvoiceItem, Money> lineTotalColumn;
 
     @FXML
     private Label subtotalLabel;
@@ -77,6 +92,12 @@ public class BillingController {
     private ProductService productService;
     private InvoiceService invoiceService;
     private ObservableList<InvoiceItem> cartItems;
+    private final FxTaskScope tasks = new FxTaskScope();
+    private boolean updatingSuggestions;
+    private final Queue<String> pendingScans = new ArrayDeque<>();
+    private boolean scanDrainScheduled;
+    // While a bill is being recorded the cart is what is being saved; scans wait in pendingScans
+    private boolean saving;
 
     @FXML
     public void initialize() {
@@ -89,11 +110,17 @@ public class BillingController {
         setupButtonHandlers();
         cartItems = FXCollections.observableArrayList();
         invoiceItemTable.setItems(cartItems);
+
+        AppConfig config = AppConfig.get();
+        new ScanInputFilter(
+            config.getLong("billing.scan.maxKeyGapMillis", DEFAULT_SCAN_MAX_KEY_GAP_MS),
+            config.getInt("billing.scan.minLength", DEFAULT_SCAN_MIN_LENGTH),
+            this::onScan
+        ).install(billingRoot);
     }
 
     private void setupComboBoxes() {
-        ObservableList<Product> products = FXCollections.observableArrayList(productService.getAllProducts());
-        productCombo.setItems(products);
+        setupProductPicker();
 
         ObservableList<String> paymentMethods = FXCollections.observableArrayList(
             "Cash",
@@ -105,25 +132,111 @@ public class BillingController {
         paymentMethodCombo.setValue("Cash");
     }
 
+    /**
+     * Type-ahead picker: typing shows the best few matches from the in-memory index,
+     * and Enter takes an exact SKU (or the top match) straight to the quantity field.
+     * Products in the list are the cached instances, so the stock shown is live.
+     */
+    private void setupProductPicker() {
+        productCombo.setEditable(true);
+        productCombo.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(Product product) {
+                return product == null ? "" : product.getName();
+            }
+
+            @Override
+            public Product fromString(String text) {
+                return resolveProduct(text);
+            }
+        });
+        productCombo.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(Product product, boolean empty) {
+                super.updateItem(product, empty);
+                setText(empty || product == null ? null
+                    : product.getName() + " (" + product.getSku() + ") - Stock: " + product.getQuantityInStock());
+            }
+        });
+
+        TextField editor = productCombo.getEditor();
+        editor.textProperty().addListener((obs, oldText, newText) -> showSuggestions(newText));
+        editor.setOnAction(e -> {
+            Product product = resolveProduct(editor.getText());
+            if (product != null) {
+                productCombo.setValue(product);
+                productCombo.hide();
+                quantityField.requestFocus();
+            }
+        });
+
+        tasks.deliver(productService.suggestProductsAsync("", SUGGESTION_LIMIT), products ->
+            productCombo.getItems().setAll(products));
+    }
+
+    private void showSuggestions(String text) {
+        if (updatingSuggestions) {
+            return;
+        }
+        Product current = productCombo.getValue();
+        if (current != null && current.getName().equals(text)) {
+            return; // Text was filled in by choosing a product
+        }
+
+        TextField editor = productCombo.getEditor();
+        int caret = editor.getCaretPosition();
+        updatingSuggestions = true;
+        try {
+            productCombo.getItems().setAll(productService.suggestProducts(text, SUGGESTION_LIMIT));
+            // Replacing the items can clear the value and with it the text being typed
+            if (!text.equals(editor.getText())) {
+                editor.setText(text);
+                editor.positionCaret(caret);
+            }
+        } finally {
+            updatingSuggestions = false;
+        }
+
+        if (editor.isFocused() && !productCombo.getItems().isEmpty()) {
+            productCombo.show();
+        }
+    }
+
+    private Product resolveProduct(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        Product bySku = productService.findByCode(text);
+        if (bySku != null) {
+            return bySku;
+        }
+        Product current = productCombo.getValue();
+        if (current != null && current.getName().equals(text)) {
+            return current;
+        }
+        List<Product> matches = productService.suggestProducts(text, 1);
+        return matches.isEmpty() ? null : matches.get(0);
+    }
+
     private void setupTableColumns() {
         productNameColumn.setCellValueFactory(new PropertyValueFactory<>("productName"));
         quantityColumn.setCellValueFactory(new PropertyValueFactory<>("quantity"));
         unitPriceColumn.setCellValueFactory(new PropertyValueFactory<>("unitPrice"));
         lineTotalColumn.setCellValueFactory(new PropertyValueFactory<>("lineTotal"));
 
-        unitPriceColumn.setCellFactory(tc -> new TableCell<InvoiceItem, Double>() {
+        unitPriceColumn.setCellFactory(tc -> new TableCell<InvoiceItem, Money>() {
             @Override
-            protected void updateItem(Double price, boolean empty) {
+            protected void updateItem(Money price, boolean empty) {
                 super.updateItem(price, empty);
-                setText(empty ? "" : String.format("Rs. %.2f", price));
+                setText(empty || price == null ? "" : price.format());
             }
         });
 
-        lineTotalColumn.setCellFactory(tc -> new TableCell<InvoiceItem, Double>() {
+        lineTotalColumn.setCellFactory(tc -> new TableCell<InvoiceItem, Money>() {
             @Override
-            protected void updateItem(Double total, boolean empty) {
+            protected void updateItem(Money total, boolean empty) {
                 super.updateItem(total, empty);
-                setText(empty ? "" : String.format("Rs. %.2f", total));
+                setText(empty || total == null ? "" : total.format());
             }
         });
     }
@@ -137,7 +250,7 @@ public class BillingController {
     }
 
     private void addItemToCart() {
-        Product selected = productCombo.getValue();
+        Product selected = resolveProduct(productCombo.getEditor().getText());
         if (selected == null) {
             showWarning("Please select a product");
             return;
@@ -150,14 +263,17 @@ public class BillingController {
                 return;
             }
 
-            if (quantity > selected.getQuantityInStock()) {
-                showError("Insufficient stock. Available: " + selected.getQuantityInStock());
+            String problem = addToCart(selected, quantity);
+            if (problem != null) {
+                showError(problem);
                 return;
             }
 
-            InvoiceItem item = InvoiceItem.create(selected, quantity);
-            cartItems.add(item);
+            invoiceItemTable.refresh();
             quantityField.clear();
+            productCombo.setValue(null);
+            productCombo.getEditor().clear();
+            productCombo.requestFocus();
 
             updateTotals();
             logger.info("Item added to cart: {}", selected.getName());
@@ -167,25 +283,87 @@ public class BillingController {
         }
     }
 
+    /**
+     * Adds to the product's existing cart line, or appends a line if there is none.
+     * Checks against live stock and returns a message if the quantity is not available.
+     */
+    private String addToCart(Product product, int quantity) {
+        for (InvoiceItem item : cartItems) {
+            if (item.getProductId() == product.getId()) {
+                int newQuantity = item.getQuantity() + quantity;
+                if (newQuantity > product.getQuantityInStock()) {
+                    return "Insufficient stock for " + product.getName() + ". Available: " + product.getQuantityInStock();
+                }
+                item.setQuantity(newQuantity);
+                item.updateLineTotal();
+                return null;
+            }
+        }
+        if (quantity > product.getQuantityInStock()) {
+            return "Insufficient stock for " + product.getName() + ". Available: " + product.getQuantityInStock();
+        }
+        cartItems.add(InvoiceItem.create(product, quantity));
+        return null;
+    }
+
+    private void onScan(String code) {
+        pendingScans.add(code);
+        if (!scanDrainScheduled) {
+            scanDrainScheduled = true;
+            Platform.runLater(this::drainScans);
+        }
+    }
+
+    /**
+     * Applies every scan queued since the last pulse in arrival order, then repaints the
+     * cart and totals once. Problems are shown inline so a dialog never steals the scanner's keys.
+     */
+    private void drainScans() {
+        scanDrainScheduled = false;
+        if (saving) {
+            scanStatusLabel.setText("Saving bill; " + pendingScans.size() + " scan(s) waiting");
+            scanStatusLabel.setStyle("-fx-text-fill: #7f8c8d;");
+            return; // drained again once the save finishes
+        }
+        List<String> problems = new ArrayList<>();
+        int added = 0;
+        String code;
+        while ((code = pendingScans.poll()) != null) {
+            Product product = productService.findByCode(code);
+            String problem = product == null ? "Unknown code: " + code : addToCart(product, 1);
+            if (problem != null) {
+                problems.add(problem);
+            } else {
+                added++;
+            }
+        }
+
+        invoiceItemTable.refresh();
+        updateTotals();
+        scanStatusLabel.setText(problems.isEmpty() ? "Scanned " + added + " item(s)" : String.join("\n", problems));
+        scanStatusLabel.setStyle(problems.isEmpty() ? "-fx-text-fill: #27ae60;" : "-fx-text-fill: #e74c3c;");
+    }
+
     private void removeItemFromCart() {
-        InvoiceItem selected = invoiceItemTable.getSelectionModel().getSelectedItem();
-        if (selected == null) {
+        int selectedIndex = invoiceItemTable.getSelectionModel().getSelectedIndex();
+        if (selectedIndex < 0) {
             showWarning("Please select an item to remove");
             return;
         }
 
-        cartItems.remove(selected);
+        // By index: unsaved items all have id 0 and so compare equal
+        cartItems.remove(selectedIndex);
         updateTotals();
     }
 
     private void updateTotals() {
-        double subtotal = cartItems.stream().mapToDouble(InvoiceItem::getLineTotal).sum();
-        double tax = subtotal * 0.05;  // 5% tax
-        double total = subtotal + tax;
+        Money subtotal = Money.sum(cartItems, InvoiceItem::getLineTotal);
+        Money tax = subtotal.percent(5);  // 5% tax
+        Money total = subtotal.plus(tax);
 
-        subtotalLabel.setText(String.format("Rs. %.2f", subtotal));
-        taxLabel.setText(String.format("Rs. %.2f", tax));
-        totalLabel.setText(String.format("Rs. %.2f", total));
+        subtotalLabel.setText(subtotal.format());
+        taxLabel.setText(tax.format());
+        totalLabel.setText(total.format());
     }
 
     private void generateInvoice() {
@@ -198,23 +376,58 @@ public class BillingController {
         String customerPhone = customerPhoneField.getText().trim();
         String paymentMethod = paymentMethodCombo.getValue();
 
-        int invoiceId = invoiceService.createInvoice(
+        // Copies, so nothing done to the cart can change lines the save is still reading
+        List<InvoiceItem> items = new ArrayList<>(cartItems.size());
+        for (InvoiceItem item : cartItems) {
+            items.add(item.copy());
+        }
+
+        // Journaled off the FX thread; the database is updated in the background
+        setSaving(true);
+        tasks.deliver(invoiceService.recordSaleAsync(
             customerName.isEmpty() ? "Walk-in Customer" : customerName,
             customerPhone,
-            new ArrayList<>(cartItems),
+            items,
             paymentMethod
-        );
-
-        if (invoiceId != -1) {
-            showInfo("Invoice #" + invoiceId + " generated successfully!");
-            clearBill();
-        } else {
+        ), invoiceNumber -> {
+            if (invoiceNumber != null) {
+                clearBill();
+                setSaving(false); // scans held during the save start the next bill
+                showInfo("Invoice " + invoiceNumber + " saved successfully!");
+            } else {
+                setSaving(false);
+                showError("Failed to generate invoice");
+            }
+        }, error -> {
+            setSaving(false);
+            logger.error("Error generating invoice", error);
             showError("Failed to generate invoice");
+        });
+    }
+
+    /**
+     * Locks the cart while a bill is being recorded; scans are queued rather than applied,
+     * and applied to the cart as it is when unlocked.
+     */
+    private void setSaving(boolean saving) {
+        this.saving = saving;
+        addItemBtn.setDisable(saving);
+        removeItemBtn.setDisable(saving);
+        clearBillBtn.setDisable(saving);
+        generateInvoiceBtn.setDisable(saving);
+        if (!saving && !pendingScans.isEmpty()) {
+            drainScans();
         }
     }
 
+    @Override
+    public void dispose() {
+        tasks.dispose();
+    }
+
     private void clearBill() {
         cartItems.clear();
+        scanStatusLabel.setText("");
         customerNameField.clear();
         customerPhoneField.clear();
         paymentMethodCombo.setValue("Cash");
@@ -234,11 +447,15 @@ public class BillingController {
         TableColumn<com.kiranastore.model.Invoice, String> custCol = new TableColumn<>("Customer");
         custCol.setCellValueFactory(new PropertyValueFactory<>("customerName"));
 
-        TableColumn<com.kiranastore.model.Invoice, Double> amountCol = new TableColumn<>("Amount");
+        TableColumn<com.kiranastore.model.Invoice, Money> amountCol = new TableColumn<>("Amount");
         amountCol.setCellValueFactory(new PropertyValueFactory<>("totalAmount"));
 
         invoiceTable.getColumns().addAll(invCol, custCol, amountCol);
-        invoiceTable.setItems(FXCollections.observableArrayList(invoiceService.getAllInvoices()));
+        invoiceTable.setPlaceholder(new Label("Loading invoices..."));
+        tasks.deliver(invoiceService.getAllInvoiceHeadersAsync(), invoices -> {
+            invoiceTable.setPlaceholder(new Label("No invoices yet"));
+            invoiceTable.setItems(FXCollections.observableArrayList(invoices));
+        });
 
         dialog.getDialogPane().setContent(invoiceTable);
         dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
@@ -1,8 +1,11 @@
 package com.kiranastore.controller;
 
-import com.kiranastore.service.InvoiceService;
-import com.kiranastore.service.ProductService;
-import com.kiranastore.service.SalesReportService;
+import com.kiranastore.model.DailySales;
+import com.kiranastore.model.DashboardSnapshot;
+import com.kiranastore.model.InventorySummary;
+import com.kiranastore.model.InvoiceAggregate;
+import com.kiranastore.model.Product;
+import com.kiranastore.service.DashboardService;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
 import javafx.scene.chart.BarChart;
@@ -16,9 +19,10 @@ import javafx.scene.layout.VBox;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
-public class DashboardController {
+public class DashboardController implements DisposableView {
     private static final Logger logger = LoggerFactory.getLogger(DashboardController.class);
 
     @FXML
@@ -45,76 +49,81 @@ public class DashboardController {
     @FXML
     private VBox chartsContainer;
 
-    private ProductService productService;
-    private InvoiceService invoiceService;
-    private SalesReportService salesReportService;
+    private DashboardService dashboardService;
+    private final FxTaskScope tasks = new FxTaskScope();
 
     @FXML
     public void initialize() {
         logger.info("Initializing DashboardController");
-        productService = new ProductService();
-        invoiceService = new InvoiceService();
-        salesReportService = new SalesReportService();
+        dashboardService = new DashboardService();
 
         updateDashboard();
     }
 
     public void updateDashboard() {
-        updateStatistics();
-        updateCharts();
+        tasks.deliverLatest("snapshot", dashboardService.getSnapshotAsync(), snapshot -> {
+            showSnapshot(snapshot);
+            // A stale snapshot is shown straight away; repaint when the background rebuild lands
+            CompletableFuture<DashboardSnapshot> refresh = dashboardService.getPendingRefresh();
+            if (refresh != null) {
+                tasks.deliverLatest("refresh", refresh, this::showSnapshot);
+            }
+        });
     }
 
-    private void updateStatistics() {
+    @Override
+    public void dispose() {
+        tasks.dispose();
+    }
+
+    private void showSnapshot(DashboardSnapshot snapshot) {
+        updateStatistics(snapshot);
+        updateCharts(snapshot);
+    }
+
+    private void updateStatistics(DashboardSnapshot snapshot) {
         // Product statistics
-        int totalProducts = productService.getTotalProductCount();
-        int totalStock = productService.getTotalStockQuantity();
-        double inventoryValue = productService.getTotalInventoryValue();
-        int lowStockCount = productService.getLowStockProducts().size();
+        InventorySummary inventory = snapshot.getInventory();
 
-        totalProductsLabel.setText(String.valueOf(totalProducts));
-        totalStockLabel.setText(String.valueOf(totalStock));
-        inventoryValueLabel.setText(String.format("Rs. %.2f", inventoryValue));
-        lowStockCountLabel.setText(String.valueOf(lowStockCount));
+        totalProductsLabel.setText(String.valueOf(inventory.getProductCount()));
+        totalStockLabel.setText(String.valueOf(inventory.getTotalStockQuantity()));
+        inventoryValueLabel.setText(inventory.getTotalInventoryValue().format());
+        lowStockCountLabel.setText(String.valueOf(inventory.getLowStockCount()));
 
         // Sales statistics
-        double todaySales = invoiceService.getDailySales(LocalDate.now());
-        double totalRevenue = invoiceService.getTotalRevenue();
-        double averageTransaction = invoiceService.getAverageInvoiceValue();
+        InvoiceAggregate allTime = snapshot.getAllTimeSales();
 
-        todaySalesLabel.setText(String.format("Rs. %.2f", todaySales));
-        totalRevenueLabel.setText(String.format("Rs. %.2f", totalRevenue));
-        averageTransactionLabel.setText(String.format("Rs. %.2f", averageTransaction));
+        todaySalesLabel.setText(snapshot.getTodaySales().format());
+        totalRevenueLabel.setText(allTime.getTotalAmount().format());
+        averageTransactionLabel.setText(allTime.getAverageAmount().format());
     }
 
-    private void updateCharts() {
+    private void updateCharts(DashboardSnapshot snapshot) {
         chartsContainer.getChildren().clear();
 
-        // Create sales trend chart (last 7 days)
-        chartsContainer.getChildren().add(createSalesTrendChart());
+        // Create sales trend chart (last dashboard.trendDays days, 7 by default)
+        chartsContainer.getChildren().add(createSalesTrendChart(snapshot.getSalesTrend()));
 
         // Create low stock alert
-        if (!productService.getLowStockProducts().isEmpty()) {
-            chartsContainer.getChildren().add(createLowStockAlert());
+        if (!snapshot.getLowStockProducts().isEmpty()) {
+            chartsContainer.getChildren().add(createLowStockAlert(snapshot.getLowStockProducts()));
         }
     }
 
-    private javafx.scene.Node createSalesTrendChart() {
+    private javafx.scene.Node createSalesTrendChart(List<DailySales> days) {
         CategoryAxis xAxis = new CategoryAxis();
         NumberAxis yAxis = new NumberAxis();
         xAxis.setLabel("Date");
         yAxis.setLabel("Sales (Rs.)");
 
         LineChart<String, Number> chart = new LineChart<>(xAxis, yAxis);
-        chart.setTitle("Sales Trend (Last 7 Days)");
+        chart.setTitle("Sales Trend (Last " + days.size() + " Days)");
 
         XYChart.Series<String, Number> series = new XYChart.Series<>();
         series.setName("Daily Sales");
 
-        LocalDate today = LocalDate.now();
-        for (int i = 6; i >= 0; i--) {
-            LocalDate date = today.minusDays(i);
-            double sales = invoiceService.getDailySales(date);
-            series.getData().add(new XYChart.Data<>(date.toString(), sales));
+        for (DailySales day : days) {
+            series.getData().add(new XYChart.Data<>(day.getDate().toString(), day.getTotalSales()));
         }
 
         chart.getData().add(series);
@@ -122,7 +131,7 @@ public class DashboardController {
         return chart;
     }
 
-    private javafx.scene.Node createLowStockAlert() {
+    private javafx.scene.Node createLowStockAlert(List<Product> lowStockProducts) {
         VBox alertBox = new VBox();
         alertBox.setStyle("-fx-border-color: #ff6b6b; -fx-border-radius: 5; -fx-padding: 15;");
         alertBox.setSpacing(10);
@@ -136,7 +145,7 @@ public class DashboardController {
         gridPane.setPadding(new Insets(10));
 
         int row = 0;
-        for (var product : productService.getLowStockProducts()) {
+        for (var product : lowStockProducts) {
             Label productLabel = new Label(product.getName());
             Label stockLabel = new Label("Stock: " + product.getQuantityInStock());
             stockLabel.setStyle("-fx-text-fill: #ff6b6b;");
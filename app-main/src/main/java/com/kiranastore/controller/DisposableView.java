@@ -0,0 +1,9 @@
+package com.kiranastore.controller;
+
+/**
+ * Implemented by view controllers that start background work. The main dashboard
+ * disposes the current view before it shows another one.
+ */
+interface DisposableView {
+    void dispose();
+}
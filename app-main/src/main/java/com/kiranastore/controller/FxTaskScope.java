@@ -0,0 +1,96 @@
+package com.kiranastore.controller;
+
+import javafx.application.Platform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Delivers async service results to a view on the JavaFX thread. Each view owns one
+ * scope; disposing it cancels everything still pending, so results never reach a view
+ * the user has navigated away from.
+ */
+public class FxTaskScope {
+    private static final Logger logger = LoggerFactory.getLogger(FxTaskScope.class);
+
+    private final Set<CompletableFuture<?>> pending = ConcurrentHashMap.newKeySet();
+    private final Map<String, CompletableFuture<?>> latestByKey = new HashMap<>();
+    private volatile boolean disposed;
+
+    public <T> CompletableFuture<T> deliver(CompletableFuture<T> future, Consumer<? super T> onSuccess) {
+        return deliver(future, onSuccess, error -> logger.error("Background task failed", error));
+    }
+
+    /**
+     * Calls onSuccess or onFailure on the FX thread when the future completes, unless
+     * the future was cancelled or the scope disposed in the meantime.
+     */
+    public <T> CompletableFuture<T> deliver(CompletableFuture<T> future, Consumer<? super T> onSuccess,
+                                            Consumer<Throwable> onFailure) {
+        if (disposed) {
+            future.cancel(true);
+            return future;
+        }
+        pending.add(future);
+        future.whenComplete((value, error) -> {
+            pending.remove(future);
+            if (disposed || future.isCancelled()) {
+                return;
+            }
+            Platform.runLater(() -> {
+                if (disposed || future.isCancelled()) {
+                    return;
+                }
+                if (error == null) {
+                    onSuccess.accept(value);
+                } else {
+                    onFailure.accept(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+                }
+            });
+        });
+        return future;
+    }
+
+    /**
+     * Like {@link #deliver(CompletableFuture, Consumer, Consumer)} but first cancels the
+     * previous task submitted under the same key, so only the latest request is shown.
+     * Must be called on the FX thread.
+     */
+    public <T> CompletableFuture<T> deliverLatest(String key, CompletableFuture<T> future,
+                                                  Consumer<? super T> onSuccess, Consumer<Throwable> onFailure) {
+        CompletableFuture<?> previous = latestByKey.put(key, future);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+        return deliver(future, onSuccess, onFailure);
+    }
+
+    public <T> CompletableFuture<T> deliverLatest(String key, CompletableFuture<T> future,
+                                                  Consumer<? super T> onSuccess) {
+        return deliverLatest(key, future, onSuccess, error -> logger.error("Background task failed", error));
+    }
+
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    /**
+     * Cancels all pending tasks and drops any results that are already queued.
+     */
+    public void dispose() {
+        disposed = true;
+        for (CompletableFuture<?> future : pending) {
+            future.cancel(true);
+        }
+        pending.clear();
+        latestByKey.clear();
+    }
+}
@@ -1,7 +1,10 @@
 package com.kiranastore.controller;
 
+import com.kiranastore.model.Money;
 import com.kiranastore.model.Product;
+import com.kiranastore.service.ProductSearch;
 import com.kiranastore.service.ProductService;
+import javafx.animation.PauseTransition;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -10,13 +13,16 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.Optional;
 
-public class InventoryController {
+public class InventoryController implements DisposableView {
     private static final Logger logger = LoggerFactory.getLogger(InventoryController.class);
+    private static final double SEARCH_DEBOUNCE_MS = 150;
 
     @FXML
     private TextField searchField;
@@ -37,10 +43,10 @@ public class InventoryController {
     private TableColumn<Product, String> categoryColumn;
 
     @FXML
-    private TableColumn<Product, Double> buyingPriceColumn;
+    private TableColumn<Product, Money> buyingPriceColumn;
 
     @FXML
-    private TableColumn<Product, Double> sellingPriceColumn;
+    private TableColumn<Product, Money> sellingPriceColumn;
 
     @FXML
     private TableColumn<Product, Integer> quantityColumn;
@@ -68,11 +74,15 @@ public class InventoryController {
 
     private ProductService productService;
     private ObservableList<Product> productList;
+    private final FxTaskScope tasks = new FxTaskScope();
+    private final PauseTransition searchDebounce = new PauseTransition(Duration.millis(SEARCH_DEBOUNCE_MS));
+    private ProductSearch productSearch;
 
     @FXML
     public void initialize() {
         logger.info("Initializing InventoryController");
         productService = new ProductService();
+        productSearch = productService.newSearch();
         setupTableColumns();
         setupButtonHandlers();
         setupFilters();
@@ -89,19 +99,19 @@ public class InventoryController {
         reorderLevelColumn.setCellValueFactory(new PropertyValueFactory<>("reorderLevel"));
 
         // Format price columns
-        buyingPriceColumn.setCellFactory(tc -> new TableCell<Product, Double>() {
+        buyingPriceColumn.setCellFactory(tc -> new TableCell<Product, Money>() {
             @Override
-            protected void updateItem(Double price, boolean empty) {
+            protected void updateItem(Money price, boolean empty) {
                 super.updateItem(price, empty);
-                setText(empty ? "" : String.format("Rs. %.2f", price));
+                setText(empty || price == null ? "" : price.format());
             }
         });
 
-        sellingPriceColumn.setCellFactory(tc -> new TableCell<Product, Double>() {
+        sellingPriceColumn.setCellFactory(tc -> new TableCell<Product, Money>() {
             @Override
-            protected void updateItem(Double price, boolean empty) {
+            protected void updateItem(Money price, boolean empty) {
                 super.updateItem(price, empty);
-                setText(empty ? "" : String.format("Rs. %.2f", price));
+                setText(empty || price == null ? "" : price.format());
             }
         });
     }
@@ -119,7 +129,10 @@ public class InventoryController {
         categoryFilter.setValue("All Categories");
 
         categoryFilter.setOnAction(e -> filterProducts());
-        searchField.setOnKeyReleased(e -> filterProducts());
+
+        // Filter once typing pauses instead of on every keystroke
+        searchDebounce.setOnFinished(e -> filterProducts());
+        searchField.textProperty().addListener((obs, oldText, newText) -> searchDebounce.playFromStart());
     }
 
     private void loadProducts() {
@@ -129,23 +142,12 @@ public class InventoryController {
     }
 
     private void filterProducts() {
-        String searchText = searchField.getText().toLowerCase();
+        searchDebounce.stop();
         String selectedCategory = categoryFilter.getValue();
+        String category = selectedCategory == null || selectedCategory.equals("All Categories") ? null : selectedCategory;
 
-        ObservableList<Product> filtered = FXCollections.observableArrayList(productService.getAllProducts());
-
-        if (!selectedCategory.equals("All Categories")) {
-            filtered = filtered.filtered(p -> p.getCategory().equals(selectedCategory));
-        }
-
-        if (!searchText.isEmpty()) {
-            filtered = filtered.filtered(p ->
-                p.getName().toLowerCase().contains(searchText) ||
-                p.getSku().toLowerCase().contains(searchText)
-            );
-        }
-
-        productTable.setItems(filtered);
+        List<Product> matches = productSearch.search(searchField.getText(), category);
+        productTable.setItems(FXCollections.observableArrayList(matches));
     }
 
     private void showAddProductDialog() {
@@ -283,8 +285,8 @@ public class InventoryController {
             }
 
             // Parse numeric fields
-            double buyingPrice = Double.parseDouble(buyingPriceField.getText().trim());
-            double sellingPrice = Double.parseDouble(sellingPriceField.getText().trim());
+            Money buyingPrice = Money.parse(buyingPriceField.getText());
+            Money sellingPrice = Money.parse(sellingPriceField.getText());
             int quantity = Integer.parseInt(quantityField.getText().trim());
             int reorderLevel = Integer.parseInt(reorderField.getText().trim());
 
@@ -337,9 +339,16 @@ public class InventoryController {
     }
 
     private void updateStatistics() {
-        totalProductsLabel.setText(String.valueOf(productService.getTotalProductCount()));
-        totalStockLabel.setText(String.valueOf(productService.getTotalStockQuantity()));
-        inventoryValueLabel.setText(String.format("Rs. %.2f", productService.getTotalInventoryValue()));
+        tasks.deliverLatest("statistics", productService.getInventorySummaryAsync(), summary -> {
+            totalProductsLabel.setText(String.valueOf(summary.getProductCount()));
+            totalStockLabel.setText(String.valueOf(summary.getTotalStockQuantity()));
+            inventoryValueLabel.setText(summary.getTotalInventoryValue().format());
+        });
+    }
+
+    @Override
+    public void dispose() {
+        tasks.dispose();
     }
 
     private void showInfo(String message) {
@@ -1,7 +1,12 @@
 package com.kiranastore.controller;
 
+import com.kiranastore.model.Invoice;
+import com.kiranastore.service.OfflineInvoiceQueue;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.StackPane;
@@ -31,11 +36,20 @@ public class MainDashboardController {
     @FXML
     private StackPane contentArea;
 
+    private DisposableView currentView;
+
     @FXML
     public void initialize() {
         logger.info("Initializing MainDashboardController");
         loadDashboard();
         setupButtonHandlers();
+
+        // The shell lives as long as the app, so it is the one that can always tell the cashier
+        OfflineInvoiceQueue queue = OfflineInvoiceQueue.get();
+        if (queue != null) {
+            queue.addRejectionListener((invoice, reason) ->
+                Platform.runLater(() -> showRejectedInvoice(invoice, reason)));
+        }
     }
 
     private void setupButtonHandlers() {
@@ -45,47 +59,49 @@ public class MainDashboardController {
         reportsBtn.setOnAction(e -> loadReports());
     }
 
+    private void showRejectedInvoice(Invoice invoice, String reason) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Invoice Not Saved");
+        alert.setHeaderText("Invoice " + invoice.getInvoiceNumber() + " could not be saved to the database");
+        alert.setContentText("It was billed for " + invoice.getTotalAmount().format() + " but has been set aside in the "
+            + "rejected invoices log and its stock put back. Check the sale and bill it again if needed."
+            + "\n\nReason: " + reason);
+        // Not showAndWait: this can arrive while another dialog is open
+        alert.show();
+    }
+
     private void loadDashboard() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/Dashboard.fxml"));
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(loader.load());
-            logger.info("Dashboard loaded");
-        } catch (IOException e) {
-            logger.error("Error loading dashboard", e);
-        }
+        loadView("/fxml/Dashboard.fxml", "Dashboard");
     }
 
     private void loadInventory() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/Inventory.fxml"));
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(loader.load());
-            logger.info("Inventory loaded");
-        } catch (IOException e) {
-            logger.error("Error loading inventory", e);
-        }
+        loadView("/fxml/Inventory.fxml", "Inventory");
     }
 
     private void loadBilling() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/Billing.fxml"));
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(loader.load());
-            logger.info("Billing loaded");
-        } catch (IOException e) {
-            logger.error("Error loading billing", e);
-        }
+        loadView("/fxml/Billing.fxml", "Billing");
     }
 
     private void loadReports() {
+        loadView("/fxml/Reports.fxml", "Reports");
+    }
+
+    private void loadView(String fxmlPath, String viewName) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/Reports.fxml"));
+            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
+            Node view = loader.load();
+
+            // Stop the outgoing view's background work before it is detached
+            if (currentView != null) {
+                currentView.dispose();
+            }
+            currentView = loader.getController() instanceof DisposableView disposable ? disposable : null;
+
             contentArea.getChildren().clear();
-            contentArea.getChildren().add(loader.load());
-            logger.info("Reports loaded");
+            contentArea.getChildren().add(view);
+            logger.info("{} loaded", viewName);
         } catch (IOException e) {
-            logger.error("Error loading reports", e);
+            logger.error("Error loading {}", viewName.toLowerCase(), e);
         }
     }
 }
@@ -1,9 +1,22 @@
 package com.kiranastore.controller;
 
+import com.kiranastore.model.AbcClass;
+import com.kiranastore.model.Money;
+import com.kiranastore.model.ProductVelocity;
+import com.kiranastore.model.SalesCubeQuery;
+import com.kiranastore.model.SalesCubeRow;
+import com.kiranastore.model.SalesDimension;
 import com.kiranastore.model.SalesReport;
+import com.kiranastore.model.TimeBucket;
+import com.kiranastore.model.VelocityMetric;
 import com.kiranastore.service.InvoiceService;
 import com.kiranastore.service.ProductService;
+import com.kiranastore.service.SalesAnalyticsService;
+import com.kiranastore.service.SalesReportRebuildJob;
 import com.kiranastore.service.SalesReportService;
+import com.kiranastore.service.ServiceExecutor;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.chart.BarChart;
@@ -14,13 +27,22 @@ import javafx.scene.chart.XYChart;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.VBox;
+import javafx.util.StringConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
-public class ReportsController {
+public class ReportsController implements DisposableView {
     private static final Logger logger = LoggerFactory.getLogger(ReportsController.class);
 
     @FXML
@@ -32,6 +54,12 @@ public class ReportsController {
     @FXML
     private Button generateReportBtn;
 
+    @FXML
+    private Button rebuildReportsBtn;
+
+    @FXML
+    private ProgressBar rebuildProgressBar;
+
     @FXML
     private Label totalSalesLabel;
 
@@ -54,17 +82,107 @@ public class ReportsController {
     private TableColumn<SalesReport, LocalDate> dateColumn;
 
     @FXML
-    private TableColumn<SalesReport, Double> salesColumn;
+    private TableColumn<SalesReport, Money> salesColumn;
 
     @FXML
-    private TableColumn<SalesReport, Double> profitColumn;
+    private TableColumn<SalesReport, Money> profitColumn;
 
     @FXML
     private TableColumn<SalesReport, Integer> transactionsColumn;
 
+    @FXML
+    private ComboBox<SalesDimension> cubeGroupByCombo;
+
+    @FXML
+    private ComboBox<TimeBucket> cubeBucketCombo;
+
+    @FXML
+    private Button rollUpBtn;
+
+    @FXML
+    private Label cubePathLabel;
+
+    @FXML
+    private VBox cubeChartContainer;
+
+    @FXML
+    private TableView<SalesCubeRow> cubeTable;
+
+    @FXML
+    private TableColumn<SalesCubeRow, String> cubeMemberColumn;
+
+    @FXML
+    private TableColumn<SalesCubeRow, Money> cubeSalesColumn;
+
+    @FXML
+    private TableColumn<SalesCubeRow, Money> cubeRevenueColumn;
+
+    @FXML
+    private TableColumn<SalesCubeRow, Money> cubeProfitColumn;
+
+    @FXML
+    private TableColumn<SalesCubeRow, Long> cubeQuantityColumn;
+
+    @FXML
+    private TableColumn<SalesCubeRow, Integer> cubeTransactionsColumn;
+
+    @FXML
+    private ComboBox<VelocityMetric> velocityMetricCombo;
+
+    @FXML
+    private ComboBox<Integer> velocityWindowCombo;
+
+    @FXML
+    private ComboBox<Integer> velocityLimitCombo;
+
+    @FXML
+    private Button refreshVelocityBtn;
+
+    @FXML
+    private Label abcClassALabel;
+
+    @FXML
+    private Label abcClassBLabel;
+
+    @FXML
+    private Label abcClassCLabel;
+
+    @FXML
+    private TableView<ProductVelocity> topProductsTable;
+
+    @FXML
+    private TableColumn<ProductVelocity, String> topProductColumn;
+
+    @FXML
+    private TableColumn<ProductVelocity, String> topCategoryColumn;
+
+    @FXML
+    private TableColumn<ProductVelocity, Long> topQuantityColumn;
+
+    @FXML
+    private TableColumn<ProductVelocity, Money> topRevenueColumn;
+
+    @FXML
+    private TableColumn<ProductVelocity, Money> topProfitColumn;
+
+    @FXML
+    private TableColumn<ProductVelocity, Double> topMarginColumn;
+
+    @FXML
+    private TableColumn<ProductVelocity, AbcClass> topAbcColumn;
+
     private SalesReportService salesReportService;
     private InvoiceService invoiceService;
     private ProductService productService;
+    private SalesAnalyticsService salesAnalyticsService;
+    private SalesReportRebuildJob rebuildJob;
+    private final FxTaskScope tasks = new FxTaskScope();
+
+    // Explorer state: the slice on screen and the slices it was drilled down from
+    private SalesCubeQuery cubeQuery;
+    private final Deque<SalesCubeQuery> cubeHistory = new ArrayDeque<>();
+    private boolean updatingCubeControls;
+    private final Map<Integer, AbcClass> abcClasses = new HashMap<>();
 
     @FXML
     public void initialize() {
@@ -72,11 +190,15 @@ public class ReportsController {
         salesReportService = new SalesReportService();
         invoiceService = new InvoiceService();
         productService = new ProductService();
+        salesAnalyticsService = new SalesAnalyticsService();
 
         setupDatePickers();
         setupTableColumns();
+        setupExplorer();
+        setupTopProducts();
         setupButtonHandlers();
         generateReport();
+        loadTopProducts();
     }
 
     private void setupDatePickers() {
@@ -91,25 +213,162 @@ public class ReportsController {
         profitColumn.setCellValueFactory(new PropertyValueFactory<>("totalProfit"));
         transactionsColumn.setCellValueFactory(new PropertyValueFactory<>("totalTransactions"));
 
-        salesColumn.setCellFactory(tc -> new TableCell<SalesReport, Double>() {
-            @Override
-            protected void updateItem(Double value, boolean empty) {
-                super.updateItem(value, empty);
-                setText(empty ? "" : String.format("Rs. %.2f", value));
+        salesColumn.setCellFactory(tc -> new MoneyCell<>());
+        profitColumn.setCellFactory(tc -> new MoneyCell<>());
+    }
+
+    private void setupExplorer() {
+        cubeGroupByCombo.setItems(FXCollections.observableArrayList(SalesDimension.values()));
+        cubeGroupByCombo.setValue(SalesDimension.DATE);
+        cubeBucketCombo.setItems(FXCollections.observableArrayList(TimeBucket.values()));
+        cubeBucketCombo.setValue(TimeBucket.DAY);
+
+        cubeMemberColumn.setCellValueFactory(new PropertyValueFactory<>("label"));
+        cubeSalesColumn.setCellValueFactory(new PropertyValueFactory<>("sales"));
+        cubeRevenueColumn.setCellValueFactory(new PropertyValueFactory<>("revenue"));
+        cubeProfitColumn.setCellValueFactory(new PropertyValueFactory<>("profit"));
+        cubeQuantityColumn.setCellValueFactory(new PropertyValueFactory<>("quantity"));
+        cubeTransactionsColumn.setCellValueFactory(new PropertyValueFactory<>("transactions"));
+        cubeSalesColumn.setCellFactory(tc -> new MoneyCell<>());
+        cubeRevenueColumn.setCellFactory(tc -> new MoneyCell<>());
+        cubeProfitColumn.setCellFactory(tc -> new MoneyCell<>());
+
+        // Changing the grouping or period re-slices the current view; roll up returns to it
+        cubeGroupByCombo.valueProperty().addListener((obs, oldValue, newValue) -> {
+            if (!updatingCubeControls && cubeQuery != null) {
+                cubeHistory.push(cubeQuery);
+                loadCube(cubeQuery.groupedBy(newValue));
+            }
+        });
+        cubeBucketCombo.valueProperty().addListener((obs, oldValue, newValue) -> {
+            if (!updatingCubeControls && cubeQuery != null && newValue != null) {
+                cubeHistory.push(cubeQuery);
+                loadCube(cubeQuery.inBuckets(newValue));
+            }
+        });
+
+        cubeTable.setRowFactory(tv -> {
+            TableRow<SalesCubeRow> row = new TableRow<>();
+            row.setOnMouseClicked(e -> {
+                if (e.getClickCount() == 2 && !row.isEmpty() && cubeQuery.canDrillDown()) {
+                    cubeHistory.push(cubeQuery);
+                    loadCube(cubeQuery.drillDown(row.getItem().getMember()));
+                }
+            });
+            return row;
+        });
+        rollUpBtn.setOnAction(e -> {
+            if (!cubeHistory.isEmpty()) {
+                loadCube(cubeHistory.pop());
             }
         });
+    }
 
-        profitColumn.setCellFactory(tc -> new TableCell<SalesReport, Double>() {
+    private void setupTopProducts() {
+        velocityMetricCombo.setItems(FXCollections.observableArrayList(VelocityMetric.values()));
+        velocityMetricCombo.setValue(VelocityMetric.QUANTITY);
+        velocityWindowCombo.setItems(FXCollections.observableArrayList(SalesAnalyticsService.getVelocityWindows()));
+        velocityWindowCombo.setValue(30);
+        velocityWindowCombo.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(Integer days) {
+                return days == null ? "" : "Last " + days + " days";
+            }
+
+            @Override
+            public Integer fromString(String text) {
+                return null;
+            }
+        });
+        velocityLimitCombo.setItems(FXCollections.observableArrayList(10, 25, 50, 100));
+        velocityLimitCombo.setValue(25);
+
+        topProductColumn.setCellValueFactory(new PropertyValueFactory<>("productName"));
+        topCategoryColumn.setCellValueFactory(new PropertyValueFactory<>("category"));
+        topQuantityColumn.setCellValueFactory(new PropertyValueFactory<>("quantity"));
+        topRevenueColumn.setCellValueFactory(new PropertyValueFactory<>("revenue"));
+        topProfitColumn.setCellValueFactory(new PropertyValueFactory<>("profit"));
+        topMarginColumn.setCellValueFactory(new PropertyValueFactory<>("profitMargin"));
+        // Top-K rows carry no class; it comes from the catalog classification loaded alongside
+        topAbcColumn.setCellValueFactory(cell -> new SimpleObjectProperty<>(abcClasses.get(cell.getValue().getProductId())));
+        topRevenueColumn.setCellFactory(tc -> new MoneyCell<>());
+        topProfitColumn.setCellFactory(tc -> new MoneyCell<>());
+        topMarginColumn.setCellFactory(tc -> new TableCell<ProductVelocity, Double>() {
             @Override
             protected void updateItem(Double value, boolean empty) {
                 super.updateItem(value, empty);
-                setText(empty ? "" : String.format("Rs. %.2f", value));
+                setText(empty || value == null ? "" : String.format("%.2f%%", value));
             }
         });
+
+        velocityMetricCombo.setOnAction(e -> loadTopProducts());
+        velocityWindowCombo.setOnAction(e -> loadTopProducts());
+        velocityLimitCombo.setOnAction(e -> loadTopProducts());
+        refreshVelocityBtn.setOnAction(e -> loadTopProducts());
     }
 
     private void setupButtonHandlers() {
         generateReportBtn.setOnAction(e -> generateReport());
+        rebuildReportsBtn.setOnAction(e -> toggleRebuild());
+    }
+
+    private void toggleRebuild() {
+        if (rebuildJob != null) {
+            rebuildJob.cancel();
+            rebuildReportsBtn.setDisable(true);
+            return;
+        }
+
+        LocalDate startDate = startDatePicker.getValue();
+        LocalDate endDate = endDatePicker.getValue();
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            showError("Please select a valid date range to rebuild");
+            return;
+        }
+
+        SalesReportRebuildJob job = new SalesReportRebuildJob(startDate, endDate);
+        rebuildJob = job;
+        rebuildProgressBar.setProgress(0);
+        rebuildProgressBar.setVisible(true);
+        rebuildReportsBtn.setText("Cancel Rebuild");
+
+        // Detached: a month already being written finishes; dispose() stops the job via cancel()
+        CompletableFuture<Integer> rebuild = ServiceExecutor.supplyDetached(() -> {
+            try {
+                return job.run((done, total, through) -> Platform.runLater(() -> {
+                    if (!tasks.isDisposed() && rebuildJob == job) {
+                        rebuildProgressBar.setProgress((double) done / total);
+                    }
+                }));
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        });
+        tasks.deliver(rebuild,
+            daysWritten -> {
+                finishRebuild();
+                generateReport();
+            },
+            error -> {
+                finishRebuild();
+                logger.error("Sales report rebuild failed", error);
+                showError("Failed to rebuild sales reports");
+            });
+    }
+
+    @Override
+    public void dispose() {
+        tasks.dispose();
+        if (rebuildJob != null) {
+            rebuildJob.cancel();
+        }
+    }
+
+    private void finishRebuild() {
+        rebuildJob = null;
+        rebuildProgressBar.setVisible(false);
+        rebuildReportsBtn.setText("Rebuild Reports");
+        rebuildReportsBtn.setDisable(false);
     }
 
     private void generateReport() {
@@ -126,15 +385,73 @@ public class ReportsController {
             return;
         }
 
-        List<SalesReport> reports = salesReportService.getSalesReportsByDateRange(startDate, endDate);
+        tasks.deliverLatest("report", salesReportService.getSalesReportsByDateRangeAsync(startDate, endDate),
+            this::showReport,
+            error -> {
+                logger.error("Error generating report", error);
+                showError("Failed to load sales reports");
+            });
+
+        cubeHistory.clear();
+        loadCube(SalesCubeQuery.between(startDate, endDate)
+            .groupedBy(cubeGroupByCombo.getValue())
+            .inBuckets(cubeBucketCombo.getValue()));
+    }
+
+    private void loadCube(SalesCubeQuery query) {
+        cubeQuery = query;
+        updatingCubeControls = true;
+        cubeGroupByCombo.setValue(query.getGroupBy());
+        cubeBucketCombo.setValue(query.getBucket());
+        updatingCubeControls = false;
+        cubeBucketCombo.setDisable(query.getGroupBy() != SalesDimension.DATE);
+        rollUpBtn.setDisable(cubeHistory.isEmpty());
+        cubePathLabel.setText(query.getDescription());
+
+        tasks.deliverLatest("cube", salesAnalyticsService.getCubeSliceAsync(query),
+            rows -> showCube(query, rows),
+            error -> {
+                logger.error("Error slicing sales", error);
+                showError("Failed to load sales breakdown");
+            });
+    }
+
+    private void showCube(SalesCubeQuery query, List<SalesCubeRow> rows) {
+        cubeTable.setItems(FXCollections.observableArrayList(rows));
+        cubeChartContainer.getChildren().clear();
+
+        if (rows.isEmpty()) {
+            cubeChartContainer.getChildren().add(new Label("No data available for selected slice"));
+            return;
+        }
+
+        CategoryAxis xAxis = new CategoryAxis();
+        NumberAxis yAxis = new NumberAxis();
+        xAxis.setLabel(query.getGroupBy() != null ? query.getGroupBy().getDisplayName() : "");
+        yAxis.setLabel("Sales (Rs.)");
+
+        BarChart<String, Number> chart = new BarChart<>(xAxis, yAxis);
+        chart.setTitle("Sales by " + xAxis.getLabel());
+        chart.setPrefHeight(300);
+        chart.setLegendVisible(false);
 
-        double totalSales = reports.stream().mapToDouble(SalesReport::getTotalSales).sum();
-        double totalProfit = reports.stream().mapToDouble(SalesReport::getTotalProfit).sum();
+        XYChart.Series<String, Number> series = new XYChart.Series<>();
+        for (SalesCubeRow row : rows) {
+            series.getData().add(new XYChart.Data<>(row.getLabel(), row.getSales()));
+        }
+
+        chart.getData().add(series);
+        cubeChartContainer.getChildren().add(chart);
+    }
+
+    private void showReport(List<SalesReport> reports) {
+        Money totalSales = Money.sum(reports, SalesReport::getTotalSales);
+        Money totalProfit = Money.sum(reports, SalesReport::getTotalProfit);
         int totalTransactions = reports.stream().mapToInt(SalesReport::getTotalTransactions).sum();
-        double profitMargin = totalSales > 0 ? (totalProfit / totalSales) * 100 : 0;
+        double profitMargin = totalProfit.percentOf(totalSales);
 
-        totalSalesLabel.setText(String.format("Rs. %.2f", totalSales));
-        totalProfitLabel.setText(String.format("Rs. %.2f", totalProfit));
+        totalSalesLabel.setText(totalSales.format());
+        totalProfitLabel.setText(totalProfit.format());
         transactionCountLabel.setText(String.valueOf(totalTransactions));
         profitMarginLabel.setText(String.format("%.2f%%", profitMargin));
 
@@ -198,6 +515,48 @@ public class ReportsController {
         return chart;
     }
 
+    private void loadTopProducts() {
+        int windowDays = velocityWindowCombo.getValue();
+        tasks.deliverLatest("topProducts",
+            salesAnalyticsService.getTopProductsAsync(velocityMetricCombo.getValue(), windowDays,
+                velocityLimitCombo.getValue()),
+            products -> topProductsTable.setItems(FXCollections.observableArrayList(products)),
+            error -> {
+                logger.error("Error loading top products", error);
+                showError("Failed to load top products");
+            });
+        tasks.deliverLatest("abc", salesAnalyticsService.getAbcClassificationAsync(windowDays),
+            this::showAbcSummary);
+    }
+
+    private void showAbcSummary(List<ProductVelocity> catalog) {
+        Map<AbcClass, Integer> counts = new EnumMap<>(AbcClass.class);
+        Map<AbcClass, Money> revenue = new EnumMap<>(AbcClass.class);
+        abcClasses.clear();
+        for (ProductVelocity product : catalog) {
+            abcClasses.put(product.getProductId(), product.getAbcClass());
+            counts.merge(product.getAbcClass(), 1, Integer::sum);
+            revenue.merge(product.getAbcClass(), product.getRevenue(), Money::plus);
+        }
+        Money totalRevenue = Money.sum(catalog, ProductVelocity::getRevenue);
+
+        Label[] labels = {abcClassALabel, abcClassBLabel, abcClassCLabel};
+        for (AbcClass abcClass : AbcClass.values()) {
+            labels[abcClass.ordinal()].setText(String.format("%d products, %.1f%% of revenue",
+                counts.getOrDefault(abcClass, 0),
+                revenue.getOrDefault(abcClass, Money.ZERO).percentOf(totalRevenue)));
+        }
+        topProductsTable.refresh();
+    }
+
+    private static class MoneyCell<S> extends TableCell<S, Money> {
+        @Override
+        protected void updateItem(Money value, boolean empty) {
+            super.updateItem(value, empty);
+            setText(empty || value == null ? "" : value.format());
+        }
+    }
+
     private void showError(String message) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle("Error");
@@ -0,0 +1,136 @@
+package com.kiranastore.controller;
+
+import javafx.animation.PauseTransition;
+import javafx.event.EventHandler;
+import javafx.event.EventTarget;
+import javafx.scene.Node;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.TextInputControl;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.util.Duration;
+
+import java.util.function.Consumer;
+
+/**
+ * Tells keyboard-wedge barcode scanner input apart from typing. A scanner types a whole
+ * code with only a few milliseconds between characters and ends it with Enter.
+ *
+ * Installed as a key event filter on a view. The first character of a possible burst is
+ * let through because it cannot be told apart yet; characters following it within the
+ * gap limit are held back. If Enter arrives in time and the burst is long enough it is a
+ * scan: the held characters and the Enter are swallowed, the first character is taken
+ * back out of the focused field, and the code goes to the handler. Otherwise the held
+ * characters are typed into the focused field after all, in order.
+ */
+class ScanInputFilter implements EventHandler<KeyEvent> {
+    private final long maxGapNanos;
+    private final int minLength;
+    private final Consumer<String> onScan;
+    private final StringBuilder held = new StringBuilder();
+    private final PauseTransition releaseTimer;
+
+    private String firstChar;
+    private EventTarget burstTarget;
+    private long lastKeyNanos;
+    private boolean swallowEnterTyped;
+
+    ScanInputFilter(long maxGapMillis, int minLength, Consumer<String> onScan) {
+        this.maxGapNanos = maxGapMillis * 1_000_000;
+        this.minLength = minLength;
+        this.onScan = onScan;
+        this.releaseTimer = new PauseTransition(Duration.millis(maxGapMillis));
+        this.releaseTimer.setOnFinished(e -> endBurst());
+    }
+
+    void install(Node root) {
+        root.addEventFilter(KeyEvent.KEY_PRESSED, this);
+        root.addEventFilter(KeyEvent.KEY_TYPED, this);
+    }
+
+    @Override
+    public void handle(KeyEvent event) {
+        if (event.getEventType() == KeyEvent.KEY_PRESSED) {
+            if (event.getCode() == KeyCode.ENTER) {
+                onEnter(event);
+            }
+            return;
+        }
+
+        String character = event.getCharacter();
+        if ("\r".equals(character) || "\n".equals(character)) {
+            if (swallowEnterTyped) {
+                swallowEnterTyped = false;
+                event.consume();
+            }
+            return;
+        }
+        if (character.isEmpty() || Character.isISOControl(character.charAt(0))
+            || event.isControlDown() || event.isAltDown() || event.isMetaDown()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        boolean partOfBurst = firstChar != null && now - lastKeyNanos <= maxGapNanos;
+        lastKeyNanos = now;
+        if (!partOfBurst) {
+            endBurst();
+            firstChar = character;
+            burstTarget = event.getTarget();
+            return;
+        }
+        held.append(character);
+        event.consume();
+        releaseTimer.playFromStart();
+    }
+
+    private void onEnter(KeyEvent event) {
+        boolean inTime = System.nanoTime() - lastKeyNanos <= maxGapNanos;
+        if (firstChar == null || !inTime || 1 + held.length() < minLength) {
+            endBurst();
+            return;
+        }
+
+        String code = firstChar + held;
+        event.consume();
+        swallowEnterTyped = true;
+        TextInputControl field = textField(burstTarget);
+        if (field != null) {
+            int caret = field.getCaretPosition();
+            if (caret > 0 && field.getText().substring(caret - 1, caret).equals(firstChar)) {
+                field.deleteText(caret - 1, caret);
+            }
+        }
+        releaseTimer.stop();
+        held.setLength(0);
+        firstChar = null;
+        burstTarget = null;
+        onScan.accept(code);
+    }
+
+    /**
+     * Gives held characters back to the field they were typed into; the burst was typing.
+     */
+    private void endBurst() {
+        releaseTimer.stop();
+        if (held.length() > 0) {
+            TextInputControl field = textField(burstTarget);
+            if (field != null) {
+                field.replaceSelection(held.toString());
+            }
+            held.setLength(0);
+        }
+        firstChar = null;
+        burstTarget = null;
+    }
+
+    private static TextInputControl textField(EventTarget target) {
+        if (target instanceof TextInputControl field) {
+            return field.isEditable() ? field : null;
+        }
+        if (target instanceof ComboBox<?> combo && combo.isEditable()) {
+            return combo.getEditor();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,28 @@
+package com.kiranastore.dao;
+
+import java.sql.SQLException;
+
+/**
+ * Thrown when an invoice commit would take a product's stock below zero.
+ * The whole invoice transaction is rolled back before this is thrown.
+ */
+public class InsufficientStockException extends SQLException {
+    private static final long serialVersionUID = 1L;
+
+    private final int productId;
+    private final int requestedQuantity;
+
+    public InsufficientStockException(int productId, int requestedQuantity) {
+        super("Insufficient stock for product ID " + productId + " (requested " + requestedQuantity + ")");
+        this.productId = productId;
+        this.requestedQuantity = requestedQuantity;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public int getRequestedQuantity() {
+        return requestedQuantity;
+    }
+}
@@ -1,33 +1,172 @@
 package com.kiranastore.dao;
 
 import com.kiranastore.database.DatabaseConnection;
+import com.kiranastore.database.SqlDialect;
+import com.kiranastore.model.DailySales;
 import com.kiranastore.model.Invoice;
+import com.kiranastore.model.InvoiceAggregate;
 import com.kiranastore.model.InvoiceItem;
+import com.kiranastore.model.Money;
+import com.kiranastore.model.ProductVelocity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 public class InvoiceDAO {
     private static final Logger logger = LoggerFactory.getLogger(InvoiceDAO.class);
+    private final SalesReportDAO salesReportDAO = new SalesReportDAO();
 
-    public int addInvoice(Invoice invoice) {
+    /**
+     * Commits an invoice in a single transaction: stock decrements, header, lines and
+     * the day's sales report totals.
+     * Stock rows are updated in ascending product-id order so concurrent bills lock
+     * them in the same order, and the whole bill is rolled back if any product would
+     * go below zero.
+     *
+     * @return the generated invoice ID
+     * @throws InsufficientStockException if a product does not have enough stock
+     */
+    public int commitInvoice(Invoice invoice) throws SQLException {
+        commit(invoice, false);
+        return invoice.getId();
+    }
+
+    /**
+     * Posts an invoice replayed from the offline journal. Safe to repeat: if an invoice
+     * with the same number is already stored nothing is written. The sale has already
+     * happened at the counter, so stock is decremented even if that takes it below zero.
+     * The invoice's ID is set either way.
+     *
+     * @return true if posted now, false if it had already been posted
+     */
+    public boolean postJournaledInvoice(Invoice invoice) throws SQLException {
+        return commit(invoice, true);
+    }
+
+    /**
+     * @return false if the journaled invoice was already stored; the invoice's ID is set either way
+     */
+    private boolean commit(Invoice invoice, boolean journaled) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                if (journaled) {
+                    int existingId = findInvoiceId(conn, invoice.getInvoiceNumber());
+                    if (existingId > 0) {
+                        conn.commit();
+                        invoice.setId(existingId);
+                        logger.info("Journaled invoice {} was already posted", invoice.getInvoiceNumber());
+                        return false;
+                    }
+                }
+                decrementStock(conn, invoice.getItems(), !journaled);
+                int invoiceId = insertInvoiceHeader(conn, invoice);
+                insertInvoiceItems(conn, invoiceId, invoice.getItems());
+                applySalesReportDelta(conn, invoice);
+                conn.commit();
+                invoice.setId(invoiceId);
+                logger.info("Invoice committed: {}", invoice.getInvoiceNumber());
+                return true;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private int findInvoiceId(Connection conn, String invoiceNumber) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT id FROM invoices WHERE invoice_number = ?")) {
+            pstmt.setString(1, invoiceNumber);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : -1;
+            }
+        }
+    }
+
+    private void decrementStock(Connection conn, List<InvoiceItem> items, boolean requireStock) throws SQLException {
+        // Merge repeated lines and sort by product ID to get a deterministic lock order
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        for (InvoiceItem item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        String sql = "UPDATE products SET quantity_in_stock = quantity_in_stock - ?, updated_at = CURRENT_TIMESTAMP " +
+                     "WHERE id = ?" + (requireStock ? " AND quantity_in_stock >= ?" : "");
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                pstmt.setInt(1, entry.getValue());
+                pstmt.setInt(2, entry.getKey());
+                if (requireStock) {
+                    pstmt.setInt(3, entry.getValue());
+                }
+                pstmt.addBatch();
+            }
+            int[] counts = pstmt.executeBatch();
+
+            int i = 0;
+            for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                if (i < counts.length && counts[i] == 0) {
+                    if (requireStock) {
+                        throw new InsufficientStockException(entry.getKey(), entry.getValue());
+                    }
+                    logger.warn("Product {} no longer exists; stock not decremented", entry.getKey());
+                }
+                i++;
+            }
+        }
+        if (!requireStock) {
+            warnIfOversold(conn, quantities.keySet());
+        }
+    }
+
+    /**
+     * A journaled sale is posted whatever the stock, since it already happened at the
+     * counter; say so when that left a product below zero.
+     */
+    private void warnIfOversold(Connection conn, Set<Integer> productIds) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT quantity_in_stock FROM products WHERE id = ?")) {
+            for (int productId : productIds) {
+                pstmt.setInt(1, productId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next() && rs.getInt(1) < 0) {
+                        logger.warn("Product {} is oversold: {} in stock after posting a journaled invoice",
+                            productId, rs.getInt(1));
+                    }
+                }
+            }
+        }
+    }
+
+    private void applySalesReportDelta(Connection conn, Invoice invoice) throws SQLException {
+        Money profit = Money.sum(invoice.getItems(), InvoiceItem::getLineProfit);
+        salesReportDAO.applyDailyDelta(conn, invoice.getInvoiceDate().toLocalDate(),
+            invoice.getTotalAmount(), profit, 1);
+    }
+
+    private int insertInvoiceHeader(Connection conn, Invoice invoice) throws SQLException {
         String sql = "INSERT INTO invoices (invoice_number, customer_name, customer_phone, total_items, " +
                      "subtotal, tax, total_amount, payment_method, invoice_date) " +
                      "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
+        try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, invoice.getInvoiceNumber());
             pstmt.setString(2, invoice.getCustomerName());
             pstmt.setString(3, invoice.getCustomerPhone());
             pstmt.setInt(4, invoice.getTotalItems());
-            pstmt.setDouble(5, invoice.getSubtotal());
-            pstmt.setDouble(6, invoice.getTax());
-            pstmt.setDouble(7, invoice.getTotalAmount());
+            MoneyColumns.set(pstmt, 5, invoice.getSubtotal());
+            MoneyColumns.set(pstmt, 6, invoice.getTax());
+            MoneyColumns.set(pstmt, 7, invoice.getTotalAmount());
             pstmt.setString(8, invoice.getPaymentMethod());
             pstmt.setTimestamp(9, Timestamp.valueOf(invoice.getInvoiceDate()));
 
@@ -35,113 +174,368 @@ public class InvoiceDAO {
 
             try (ResultSet rs = pstmt.getGeneratedKeys()) {
                 if (rs.next()) {
-                    int invoiceId = rs.getInt(1);
-                    addInvoiceItems(invoiceId, invoice.getItems());
-                    logger.info("Invoice added: {}", invoice.getInvoiceNumber());
-                    return invoiceId;
+                    return rs.getInt(1);
                 }
             }
-        } catch (SQLException e) {
-            logger.error("Error adding invoice", e);
         }
-        return -1;
+        throw new SQLException("No ID generated for invoice " + invoice.getInvoiceNumber());
     }
 
-    private void addInvoiceItems(int invoiceId, List<InvoiceItem> items) {
-        String sql = "INSERT INTO invoice_items (invoice_id, product_id, product_name, quantity, unit_price, line_total) " +
-                     "VALUES (?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
+    private void insertInvoiceItems(Connection conn, int invoiceId, List<InvoiceItem> items) throws SQLException {
+        String sql = "INSERT INTO invoice_items (invoice_id, product_id, product_name, quantity, unit_price, unit_cost, line_total) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             for (InvoiceItem item : items) {
                 pstmt.setInt(1, invoiceId);
                 pstmt.setInt(2, item.getProductId());
                 pstmt.setString(3, item.getProductName());
                 pstmt.setInt(4, item.getQuantity());
-                pstmt.setDouble(5, item.getUnitPrice());
-                pstmt.setDouble(6, item.getLineTotal());
+                MoneyColumns.set(pstmt, 5, item.getUnitPrice());
+                MoneyColumns.set(pstmt, 6, item.getUnitCost());
+                MoneyColumns.set(pstmt, 7, item.getLineTotal());
                 pstmt.addBatch();
             }
             pstmt.executeBatch();
-        } catch (SQLException e) {
-            logger.error("Error adding invoice items", e);
+        }
+        for (InvoiceItem item : items) {
+            item.setInvoiceId(invoiceId);
+        }
+    }
+
+    /**
+     * Reserves the next {@code count} invoice numbers for the prefix, creating its
+     * sequence row on first use. The row is locked only for this one statement.
+     *
+     * @return the last number reserved; the block is {@code (result - count, result]}
+     */
+    public long reserveInvoiceNumbers(String prefix, int count) throws SQLException {
+        String upsert = "INSERT INTO invoice_sequences (prefix, reserved_through) VALUES (?, ?)" +
+                        DatabaseConnection.getDialect().onConflictAdd("prefix", "reserved_through");
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement update = conn.prepareStatement(upsert);
+                 PreparedStatement select = conn.prepareStatement(
+                     "SELECT reserved_through FROM invoice_sequences WHERE prefix = ?")) {
+                update.setString(1, prefix);
+                update.setLong(2, count);
+                update.executeUpdate();
+
+                select.setString(1, prefix);
+                try (ResultSet rs = select.executeQuery()) {
+                    rs.next();
+                    long reservedThrough = rs.getLong(1);
+                    conn.commit();
+                    return reservedThrough;
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         }
     }
 
     public Invoice getInvoiceById(int id) {
         String sql = "SELECT * FROM invoices WHERE id = ?";
+        String itemsSql = "SELECT * FROM invoice_items WHERE invoice_id = ? ORDER BY id";
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            List<Invoice> invoices = queryInvoices(conn, sql, id);
+            if (!invoices.isEmpty()) {
+                attachInvoiceItems(conn, invoices, itemsSql, id);
+                return invoices.get(0);
+            }
+        } catch (SQLException e) {
+            logger.error("Error fetching invoice by ID", e);
+        }
+        return null;
+    }
+
+    public List<Invoice> getAllInvoices() {
+        String sql = "SELECT * FROM invoices ORDER BY invoice_date DESC";
+        String itemsSql = "SELECT * FROM invoice_items ORDER BY invoice_id, id";
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            List<Invoice> invoices = queryInvoices(conn, sql);
+            attachInvoiceItems(conn, invoices, itemsSql);
+            return invoices;
+        } catch (SQLException e) {
+            logger.error("Error fetching all invoices", e);
+        }
+        return new ArrayList<>();
+    }
+
+    public List<Invoice> getInvoicesByDate(LocalDate startDate, LocalDate endDate) {
+        String sql = "SELECT * FROM invoices WHERE invoice_date >= ? AND invoice_date < ? ORDER BY invoice_date DESC";
+        String itemsSql = "SELECT ii.* FROM invoice_items ii JOIN invoices i ON i.id = ii.invoice_id " +
+                          "WHERE i.invoice_date >= ? AND i.invoice_date < ? ORDER BY ii.invoice_id, ii.id";
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            Timestamp from = startOfDay(startDate);
+            Timestamp to = startOfDay(endDate.plusDays(1));
+            List<Invoice> invoices = queryInvoices(conn, sql, from, to);
+            attachInvoiceItems(conn, invoices, itemsSql, from, to);
+            return invoices;
+        } catch (SQLException e) {
+            logger.error("Error fetching invoices by date", e);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Header-only variant of {@link #getAllInvoices()} for callers that never read items.
+     */
+    public List<Invoice> getAllInvoiceHeaders() {
+        String sql = "SELECT * FROM invoices ORDER BY invoice_date DESC";
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return queryInvoices(conn, sql);
+        } catch (SQLException e) {
+            logger.error("Error fetching invoice headers", e);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Header-only variant of {@link #getInvoicesByDate(LocalDate, LocalDate)}.
+     */
+    public List<Invoice> getInvoiceHeadersByDate(LocalDate startDate, LocalDate endDate) {
+        String sql = "SELECT * FROM invoices WHERE invoice_date >= ? AND invoice_date < ? ORDER BY invoice_date DESC";
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return queryInvoices(conn, sql, startOfDay(startDate), startOfDay(endDate.plusDays(1)));
+        } catch (SQLException e) {
+            logger.error("Error fetching invoice headers by date", e);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Sum and count of invoice totals computed in the database; the average is derived
+     * from them so it rounds the same way everywhere.
+     * Any of the filters may be null to leave that dimension unbounded.
+     */
+    public InvoiceAggregate getInvoiceAggregate(LocalDate startDate, LocalDate endDate, String paymentMethod) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT COALESCE(SUM(total_amount), 0) AS total_amount, COUNT(*) AS invoice_count " +
+            "FROM invoices WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (startDate != null) {
+            sql.append(" AND invoice_date >= ?");
+            params.add(startOfDay(startDate));
+        }
+        if (endDate != null) {
+            sql.append(" AND invoice_date < ?");
+            params.add(startOfDay(endDate.plusDays(1)));
+        }
+        if (paymentMethod != null) {
+            sql.append(" AND payment_method = ?");
+            params.add(paymentMethod);
+        }
+
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
 
-            pstmt.setInt(1, id);
+            bindParameters(pstmt, params.toArray());
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    Invoice invoice = mapResultSetToInvoice(rs);
-                    invoice.setItems(getInvoiceItems(id));
-                    return invoice;
+                    Money total = MoneyColumns.get(rs, "total_amount");
+                    int count = rs.getInt("invoice_count");
+                    return new InvoiceAggregate(total, count, total.dividedBy(count));
                 }
             }
         } catch (SQLException e) {
-            logger.error("Error fetching invoice by ID", e);
+            logger.error("Error computing invoice aggregate", e);
         }
-        return null;
+        return new InvoiceAggregate(Money.ZERO, 0, Money.ZERO);
     }
 
-    public List<Invoice> getAllInvoices() {
-        List<Invoice> invoices = new ArrayList<>();
-        String sql = "SELECT * FROM invoices ORDER BY invoice_date DESC";
+    /**
+     * Gross profit over a date range from the unit cost recorded on each line.
+     */
+    public Money getGrossProfit(LocalDate startDate, LocalDate endDate) {
+        String sql = "SELECT COALESCE(SUM((ii.unit_price - ii.unit_cost) * ii.quantity), 0) AS profit " +
+                     "FROM invoice_items ii JOIN invoices i ON i.id = ii.invoice_id " +
+                     "WHERE i.invoice_date >= ? AND i.invoice_date < ?";
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            while (rs.next()) {
-                Invoice invoice = mapResultSetToInvoice(rs);
-                invoice.setItems(getInvoiceItems(invoice.getId()));
-                invoices.add(invoice);
+            pstmt.setTimestamp(1, startOfDay(startDate));
+            pstmt.setTimestamp(2, startOfDay(endDate.plusDays(1)));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return MoneyColumns.get(rs, "profit");
+                }
             }
         } catch (SQLException e) {
-            logger.error("Error fetching all invoices", e);
+            logger.error("Error computing gross profit", e);
         }
-        return invoices;
+        return Money.ZERO;
     }
 
-    public List<Invoice> getInvoicesByDate(LocalDate startDate, LocalDate endDate) {
-        List<Invoice> invoices = new ArrayList<>();
-        String sql = "SELECT * FROM invoices WHERE DATE(invoice_date) BETWEEN ? AND ? ORDER BY invoice_date DESC";
+    /**
+     * Per-day sales, profit and transaction count for [startDate, endDate], computed
+     * with one grouped query, oldest first. Days without invoices are not included.
+     */
+    public List<DailySales> getDailyTotals(LocalDate startDate, LocalDate endDate) {
+        // Profit is summed per invoice in a correlated subquery so joining items cannot inflate the sales total
+        String sql = "SELECT DATE(i.invoice_date) AS sale_day, SUM(i.total_amount) AS total_sales, " +
+                     "SUM(COALESCE((SELECT SUM((ii.unit_price - ii.unit_cost) * ii.quantity) " +
+                     "FROM invoice_items ii WHERE ii.invoice_id = i.id), 0)) AS total_profit, " +
+                     "COUNT(*) AS transactions FROM invoices i " +
+                     "WHERE i.invoice_date >= ? AND i.invoice_date < ? " +
+                     "GROUP BY DATE(i.invoice_date) ORDER BY sale_day";
+        List<DailySales> days = new ArrayList<>();
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setString(1, startDate.toString());
-            pstmt.setString(2, endDate.toString());
+            bindParameters(pstmt, startOfDay(startDate), startOfDay(endDate.plusDays(1)));
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    Invoice invoice = mapResultSetToInvoice(rs);
-                    invoice.setItems(getInvoiceItems(invoice.getId()));
-                    invoices.add(invoice);
+                    days.add(new DailySales(
+                        LocalDate.parse(rs.getString("sale_day")),
+                        MoneyColumns.get(rs, "total_sales"),
+                        MoneyColumns.get(rs, "total_profit"),
+                        rs.getInt("transactions")
+                    ));
                 }
             }
         } catch (SQLException e) {
-            logger.error("Error fetching invoices by date", e);
+            logger.error("Error fetching daily totals", e);
         }
-        return invoices;
+        return days;
     }
 
-    private List<InvoiceItem> getInvoiceItems(int invoiceId) {
-        List<InvoiceItem> items = new ArrayList<>();
-        String sql = "SELECT * FROM invoice_items WHERE invoice_id = ?";
+    /**
+     * Units, revenue and profit per product over [startDate, endDate], computed with one
+     * grouped query, by product ID. Only products with lines in the range are included;
+     * names are as printed on the invoices, and category and ABC class are left unset.
+     */
+    public List<ProductVelocity> getProductSales(LocalDate startDate, LocalDate endDate) {
+        String sql = "SELECT ii.product_id, MAX(ii.product_name) AS product_name, SUM(ii.quantity) AS quantity, " +
+                     "SUM(ii.unit_price * ii.quantity) AS revenue, " +
+                     "SUM((ii.unit_price - ii.unit_cost) * ii.quantity) AS profit " +
+                     "FROM invoice_items ii JOIN invoices i ON i.id = ii.invoice_id " +
+                     "WHERE i.invoice_date >= ? AND i.invoice_date < ? " +
+                     "GROUP BY ii.product_id ORDER BY ii.product_id";
+        int windowDays = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        List<ProductVelocity> products = new ArrayList<>();
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setInt(1, invoiceId);
+            bindParameters(pstmt, startOfDay(startDate), startOfDay(endDate.plusDays(1)));
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    items.add(mapResultSetToInvoiceItem(rs));
+                    products.add(new ProductVelocity(
+                        rs.getInt("product_id"),
+                        rs.getString("product_name"),
+                        null,
+                        windowDays,
+                        rs.getLong("quantity"),
+                        MoneyColumns.get(rs, "revenue"),
+                        MoneyColumns.get(rs, "profit"),
+                        null
+                    ));
                 }
             }
         } catch (SQLException e) {
-            logger.error("Error fetching invoice items", e);
+            logger.error("Error fetching product sales", e);
+        }
+        return products;
+    }
+
+    /**
+     * Receives one invoice line at a time from {@link #scanInvoiceLines}.
+     */
+    public interface LineVisitor {
+        void visit(int invoiceId, LocalDateTime invoiceDate, String paymentMethod, long invoiceTotalPaise,
+                   int productId, int quantity, long unitPricePaise, long unitCostPaise);
+    }
+
+    /**
+     * Streams every invoice line together with its invoice's header fields, grouped by
+     * invoice in ID order, without building Invoice or InvoiceItem objects.
+     */
+    public void scanInvoiceLines(LineVisitor visitor) throws SQLException {
+        String sql = "SELECT i.id, i.invoice_date, i.payment_method, i.total_amount, " +
+                     "ii.product_id, ii.quantity, ii.unit_price, ii.unit_cost " +
+                     "FROM invoices i JOIN invoice_items ii ON ii.invoice_id = i.id " +
+                     "ORDER BY i.id, ii.id";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Connector/J streams row by row only with this fetch size; otherwise it buffers the whole result
+            pstmt.setFetchSize(DatabaseConnection.getDialect() == SqlDialect.MYSQL ? Integer.MIN_VALUE : 1000);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int invoiceId = -1;
+                LocalDateTime invoiceDate = null;
+                String paymentMethod = null;
+                long invoiceTotal = 0;
+                while (rs.next()) {
+                    // Header columns repeat on every line, so only convert them once per invoice
+                    if (rs.getInt(1) != invoiceId) {
+                        invoiceId = rs.getInt(1);
+                        invoiceDate = rs.getTimestamp(2).toLocalDateTime();
+                        paymentMethod = rs.getString(3);
+                        invoiceTotal = MoneyColumns.get(rs, 4).getPaise();
+                    }
+                    visitor.visit(invoiceId, invoiceDate, paymentMethod, invoiceTotal,
+                        rs.getInt(5),
+                        rs.getInt(6),
+                        MoneyColumns.get(rs, 7).getPaise(),
+                        MoneyColumns.get(rs, 8).getPaise()
+                    );
+                }
+            }
+        }
+    }
+
+    private List<Invoice> queryInvoices(Connection conn, String sql, Object... params) throws SQLException {
+        List<Invoice> invoices = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            bindParameters(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    invoices.add(mapResultSetToInvoice(rs));
+                }
+            }
+        }
+        return invoices;
+    }
+
+    /**
+     * Loads the items of all given invoices with one query and stitches them onto
+     * their headers in memory. The items query must select the same invoice set.
+     */
+    private void attachInvoiceItems(Connection conn, List<Invoice> invoices, String itemsSql,
+                                    Object... params) throws SQLException {
+        if (invoices.isEmpty()) {
+            return;
+        }
+        Map<Integer, Invoice> invoicesById = new HashMap<>(invoices.size() * 2);
+        for (Invoice invoice : invoices) {
+            invoice.setItems(new ArrayList<>());
+            invoicesById.put(invoice.getId(), invoice);
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(itemsSql)) {
+            bindParameters(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    InvoiceItem item = mapResultSetToInvoiceItem(rs);
+                    Invoice invoice = invoicesById.get(item.getInvoiceId());
+                    if (invoice != null) {
+                        invoice.getItems().add(item);
+                    }
+                }
+            }
+        }
+    }
+
+    // Half-open [start, end) timestamp bounds keep date filters on the invoice_date index
+    private static Timestamp startOfDay(LocalDate date) {
+        return Timestamp.valueOf(date.atStartOfDay());
+    }
+
+    private void bindParameters(PreparedStatement pstmt, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            pstmt.setObject(i + 1, params[i]);
         }
-        return items;
     }
 
     private Invoice mapResultSetToInvoice(ResultSet rs) throws SQLException {
@@ -151,9 +545,9 @@ public class InvoiceDAO {
         invoice.setCustomerName(rs.getString("customer_name"));
         invoice.setCustomerPhone(rs.getString("customer_phone"));
         invoice.setTotalItems(rs.getInt("total_items"));
-        invoice.setSubtotal(rs.getDouble("subtotal"));
-        invoice.setTax(rs.getDouble("tax"));
-        invoice.setTotalAmount(rs.getDouble("total_amount"));
+        invoice.setSubtotal(MoneyColumns.get(rs, "subtotal"));
+        invoice.setTax(MoneyColumns.get(rs, "tax"));
+        invoice.setTotalAmount(MoneyColumns.get(rs, "total_amount"));
         invoice.setPaymentMethod(rs.getString("payment_method"));
         invoice.setInvoiceDate(rs.getTimestamp("invoice_date").toLocalDateTime());
         return invoice;
@@ -166,8 +560,9 @@ public class InvoiceDAO {
         item.setProductId(rs.getInt("product_id"));
         item.setProductName(rs.getString("product_name"));
         item.setQuantity(rs.getInt("quantity"));
-        item.setUnitPrice(rs.getDouble("unit_price"));
-        item.setLineTotal(rs.getDouble("line_total"));
+        item.setUnitPrice(MoneyColumns.get(rs, "unit_price"));
+        item.setUnitCost(MoneyColumns.get(rs, "unit_cost"));
+        item.setLineTotal(MoneyColumns.get(rs, "line_total"));
         return item;
     }
 }
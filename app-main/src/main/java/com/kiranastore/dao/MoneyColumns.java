@@ -0,0 +1,27 @@
+package com.kiranastore.dao;
+
+import com.kiranastore.model.Money;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Reads and binds DECIMAL money columns as BigDecimal so amounts never pass through double.
+ */
+final class MoneyColumns {
+    private MoneyColumns() {
+    }
+
+    static Money get(ResultSet rs, String column) throws SQLException {
+        return Money.of(rs.getBigDecimal(column));
+    }
+
+    static Money get(ResultSet rs, int column) throws SQLException {
+        return Money.of(rs.getBigDecimal(column));
+    }
+
+    static void set(PreparedStatement pstmt, int index, Money amount) throws SQLException {
+        pstmt.setBigDecimal(index, amount.toBigDecimal());
+    }
+}
@@ -1,6 +1,8 @@
 package com.kiranastore.dao;
 
 import com.kiranastore.database.DatabaseConnection;
+import com.kiranastore.model.InventorySummary;
+import com.kiranastore.model.Money;
 import com.kiranastore.model.Product;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,17 +19,22 @@ public class ProductDAO {
         String sql = "INSERT INTO products (name, sku, category, buying_price, selling_price, quantity_in_stock, reorder_level) " +
                      "VALUES (?, ?, ?, ?, ?, ?, ?)";
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             pstmt.setString(1, product.getName());
             pstmt.setString(2, product.getSku());
             pstmt.setString(3, product.getCategory());
-            pstmt.setDouble(4, product.getBuyingPrice());
-            pstmt.setDouble(5, product.getSellingPrice());
+            MoneyColumns.set(pstmt, 4, product.getBuyingPrice());
+            MoneyColumns.set(pstmt, 5, product.getSellingPrice());
             pstmt.setInt(6, product.getQuantityInStock());
             pstmt.setInt(7, product.getReorderLevel());
 
             pstmt.executeUpdate();
+            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                if (rs.next()) {
+                    product.setId(rs.getInt(1));
+                }
+            }
             logger.info("Product added: {}", product.getName());
             return true;
         } catch (SQLException e) {
@@ -36,19 +43,23 @@ public class ProductDAO {
         }
     }
 
-    public boolean updateProduct(Product product) {
+    /**
+     * Updates the product's details and moves its stock by {@code stockDelta}; the product's
+     * own quantity is not written, so sales posted meanwhile are not overwritten.
+     */
+    public boolean updateProduct(Product product, int stockDelta) {
         String sql = "UPDATE products SET name = ?, sku = ?, category = ?, buying_price = ?, " +
-                     "selling_price = ?, quantity_in_stock = ?, reorder_level = ?, updated_at = CURRENT_TIMESTAMP " +
-                     "WHERE id = ?";
+                     "selling_price = ?, quantity_in_stock = quantity_in_stock + ?, reorder_level = ?, " +
+                     "updated_at = CURRENT_TIMESTAMP WHERE id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, product.getName());
             pstmt.setString(2, product.getSku());
             pstmt.setString(3, product.getCategory());
-            pstmt.setDouble(4, product.getBuyingPrice());
-            pstmt.setDouble(5, product.getSellingPrice());
-            pstmt.setInt(6, product.getQuantityInStock());
+            MoneyColumns.set(pstmt, 4, product.getBuyingPrice());
+            MoneyColumns.set(pstmt, 5, product.getSellingPrice());
+            pstmt.setInt(6, stockDelta);
             pstmt.setInt(7, product.getReorderLevel());
             pstmt.setInt(8, product.getId());
 
@@ -160,6 +171,32 @@ public class ProductDAO {
         return products;
     }
 
+    public InventorySummary getInventorySummary() {
+        String sql = "SELECT COUNT(*) AS product_count, " +
+                     "COALESCE(SUM(quantity_in_stock), 0) AS total_stock, " +
+                     "COALESCE(SUM(selling_price * quantity_in_stock), 0) AS total_value, " +
+                     "COALESCE(SUM(buying_price * quantity_in_stock), 0) AS total_cost, " +
+                     "COALESCE(SUM(CASE WHEN quantity_in_stock <= reorder_level THEN 1 ELSE 0 END), 0) AS low_stock_count " +
+                     "FROM products";
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            if (rs.next()) {
+                return new InventorySummary(
+                    rs.getInt("product_count"),
+                    rs.getInt("total_stock"),
+                    MoneyColumns.get(rs, "total_value"),
+                    MoneyColumns.get(rs, "total_cost"),
+                    rs.getInt("low_stock_count")
+                );
+            }
+        } catch (SQLException e) {
+            logger.error("Error computing inventory summary", e);
+        }
+        return new InventorySummary(0, 0, Money.ZERO, Money.ZERO, 0);
+    }
+
     public boolean updateStock(int productId, int newQuantity) {
         String sql = "UPDATE products SET quantity_in_stock = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
@@ -175,14 +212,29 @@ public class ProductDAO {
         }
     }
 
+    public boolean adjustStock(int productId, int delta) {
+        String sql = "UPDATE products SET quantity_in_stock = quantity_in_stock + ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, delta);
+            pstmt.setInt(2, productId);
+            pstmt.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            logger.error("Error adjusting stock", e);
+            return false;
+        }
+    }
+
     private Product mapResultSetToProduct(ResultSet rs) throws SQLException {
         Product product = new Product();
         product.setId(rs.getInt("id"));
         product.setName(rs.getString("name"));
         product.setSku(rs.getString("sku"));
         product.setCategory(rs.getString("category"));
-        product.setBuyingPrice(rs.getDouble("buying_price"));
-        product.setSellingPrice(rs.getDouble("selling_price"));
+        product.setBuyingPrice(MoneyColumns.get(rs, "buying_price"));
+        product.setSellingPrice(MoneyColumns.get(rs, "selling_price"));
         product.setQuantityInStock(rs.getInt("quantity_in_stock"));
         product.setReorderLevel(rs.getInt("reorder_level"));
         return product;
@@ -1,6 +1,9 @@
 package com.kiranastore.dao;
 
 import com.kiranastore.database.DatabaseConnection;
+import com.kiranastore.model.InvoiceAggregate;
+import com.kiranastore.model.Money;
+import com.kiranastore.model.PeriodSummary;
 import com.kiranastore.model.SalesReport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,63 +11,213 @@ import org.slf4j.LoggerFactory;
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
 
 public class SalesReportDAO {
     private static final Logger logger = LoggerFactory.getLogger(SalesReportDAO.class);
 
-    public void addOrUpdateDailySalesReport(LocalDate date, double totalSales, double totalProfit, int totalTransactions) {
-        String selectSql = "SELECT id FROM sales_reports WHERE sale_date = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement selectStmt = conn.prepareStatement(selectSql)) {
+    // sales_rollups.period_type values
+    private static final String MONTH = "M";
+    private static final String YEAR = "Y";
 
-            selectStmt.setString(1, date.toString());
-            try (ResultSet rs = selectStmt.executeQuery()) {
-                if (rs.next()) {
-                    updateSalesReport(rs.getInt("id"), totalSales, totalProfit, totalTransactions);
-                } else {
-                    addSalesReport(date, totalSales, totalProfit, totalTransactions);
-                }
+    public void addOrUpdateDailySalesReport(LocalDate date, Money totalSales, Money totalProfit, int totalTransactions) {
+        String sql = "INSERT INTO sales_reports (sale_date, total_sales, total_profit, total_transactions) " +
+                     "VALUES (?, ?, ?, ?)" +
+                     DatabaseConnection.getDialect().onConflictReplace("sale_date",
+                         "total_sales", "total_profit", "total_transactions");
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, date.toString());
+                MoneyColumns.set(pstmt, 2, totalSales);
+                MoneyColumns.set(pstmt, 3, totalProfit);
+                pstmt.setInt(4, totalTransactions);
+                pstmt.executeUpdate();
+
+                recomputeRollups(conn, date, date.plusDays(1));
+                conn.commit();
+                logger.info("Sales report saved for date: {}", date);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
         } catch (SQLException e) {
             logger.error("Error adding or updating sales report", e);
         }
     }
 
-    private void addSalesReport(LocalDate date, double totalSales, double totalProfit, int totalTransactions) {
+    /**
+     * Adds one committed invoice's figures to its day's report row, creating the row
+     * if needed. Runs on the caller's connection so it joins the invoice transaction.
+     */
+    public void applyDailyDelta(Connection conn, LocalDate date, Money sales, Money profit,
+                                int transactions) throws SQLException {
         String sql = "INSERT INTO sales_reports (sale_date, total_sales, total_profit, total_transactions) " +
-                     "VALUES (?, ?, ?, ?)";
+                     "VALUES (?, ?, ?, ?)" +
+                     DatabaseConnection.getDialect().onConflictAdd("sale_date",
+                         "total_sales", "total_profit", "total_transactions");
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, date.toString());
+            MoneyColumns.set(pstmt, 2, sales);
+            MoneyColumns.set(pstmt, 3, profit);
+            pstmt.setInt(4, transactions);
+            pstmt.executeUpdate();
+        }
+
+        String rollupSql = "INSERT INTO sales_rollups (period_type, period_start, total_sales, total_profit, total_transactions) " +
+                           "VALUES (?, ?, ?, ?, ?)" +
+                           DatabaseConnection.getDialect().onConflictAdd("period_type, period_start",
+                               "total_sales", "total_profit", "total_transactions");
+        try (PreparedStatement pstmt = conn.prepareStatement(rollupSql)) {
+            addRollupDelta(pstmt, MONTH, date.withDayOfMonth(1), sales, profit, transactions);
+            addRollupDelta(pstmt, YEAR, date.withDayOfYear(1), sales, profit, transactions);
+            pstmt.executeBatch();
+        }
+    }
+
+    private void addRollupDelta(PreparedStatement pstmt, String periodType, LocalDate periodStart,
+                                Money sales, Money profit, int transactions) throws SQLException {
+        pstmt.setString(1, periodType);
+        pstmt.setString(2, periodStart.toString());
+        MoneyColumns.set(pstmt, 3, sales);
+        MoneyColumns.set(pstmt, 4, profit);
+        pstmt.setInt(5, transactions);
+        pstmt.addBatch();
+    }
+
+    /**
+     * Recomputes every report row in [startDate, endDateExclusive) from the invoice tables
+     * in one transaction: the old rows are deleted and the days are summed and inserted by
+     * a single INSERT ... SELECT. Commits in the range wait for it rather than adding their
+     * deltas to rows it is about to replace. Days without invoices end up with no row.
+     *
+     * @return the number of days with sales written
+     */
+    public int replaceDailyReports(LocalDate startDate, LocalDate endDateExclusive) throws SQLException {
+        String deleteSql = "DELETE FROM sales_reports WHERE sale_date >= ? AND sale_date < ?";
+        // Profit is summed per invoice in a correlated subquery so joining items cannot inflate the sales total
+        String insertSql = "INSERT INTO sales_reports (sale_date, total_sales, total_profit, total_transactions) " +
+                           "SELECT DATE(i.invoice_date), SUM(i.total_amount), " +
+                           "SUM(COALESCE((SELECT SUM((ii.unit_price - ii.unit_cost) * ii.quantity) " +
+                           "FROM invoice_items ii WHERE ii.invoice_id = i.id), 0)), COUNT(*) FROM invoices i " +
+                           "WHERE i.invoice_date >= ? AND i.invoice_date < ? GROUP BY DATE(i.invoice_date)";
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement deleteStmt = conn.prepareStatement(deleteSql);
+                 PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
+
+                deleteStmt.setString(1, startDate.toString());
+                deleteStmt.setString(2, endDateExclusive.toString());
+                deleteStmt.executeUpdate();
+
+                insertStmt.setTimestamp(1, Timestamp.valueOf(startDate.atStartOfDay()));
+                insertStmt.setTimestamp(2, Timestamp.valueOf(endDateExclusive.atStartOfDay()));
+                int days = insertStmt.executeUpdate();
+
+                recomputeRollups(conn, startDate, endDateExclusive);
+                conn.commit();
+                return days;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the month and year rollups overlapping [startDate, endDateExclusive) from
+     * sales_reports. Used after absolute writes, where a delta is not known.
+     */
+    private void recomputeRollups(Connection conn, LocalDate startDate, LocalDate endDateExclusive) throws SQLException {
+        if (!startDate.isBefore(endDateExclusive)) {
+            return;
+        }
+        String sql = "INSERT INTO sales_rollups (period_type, period_start, total_sales, total_profit, total_transactions) " +
+                     "SELECT ?, ?, COALESCE(SUM(total_sales), 0), COALESCE(SUM(total_profit), 0), " +
+                     "COALESCE(SUM(total_transactions), 0) FROM sales_reports WHERE sale_date >= ? AND sale_date < ?" +
+                     DatabaseConnection.getDialect().onConflictReplace("period_type, period_start",
+                         "total_sales", "total_profit", "total_transactions");
+        LocalDate lastDay = endDateExclusive.minusDays(1);
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (YearMonth month = YearMonth.from(startDate); !month.isAfter(YearMonth.from(lastDay)); month = month.plusMonths(1)) {
+                addRollupRecompute(pstmt, MONTH, month.atDay(1), month.plusMonths(1).atDay(1));
+            }
+            for (int year = startDate.getYear(); year <= lastDay.getYear(); year++) {
+                addRollupRecompute(pstmt, YEAR, LocalDate.of(year, 1, 1), LocalDate.of(year + 1, 1, 1));
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private void addRollupRecompute(PreparedStatement pstmt, String periodType, LocalDate periodStart,
+                                    LocalDate periodEndExclusive) throws SQLException {
+        pstmt.setString(1, periodType);
+        pstmt.setString(2, periodStart.toString());
+        pstmt.setString(3, periodStart.toString());
+        pstmt.setString(4, periodEndExclusive.toString());
+        pstmt.addBatch();
+    }
+
+    public PeriodSummary getMonthSummary(YearMonth month) {
+        return getPeriodSummary(MONTH, month.atDay(1), month.plusMonths(1).atDay(1));
+    }
+
+    public PeriodSummary getYearSummary(Year year) {
+        return getPeriodSummary(YEAR, year.atDay(1), year.plusYears(1).atDay(1));
+    }
+
+    /**
+     * Sales and transactions over all time, summed from the year rollups, so the cost
+     * does not grow with the number of invoices. They match the invoices only because the
+     * V6 migration rebuilt sales_reports, and the rollups from it, on upgrade; before that
+     * the rollups held just the days someone had generated a report for.
+     */
+    public InvoiceAggregate getAllTimeTotals() {
+        String sql = "SELECT SUM(total_sales) AS total_sales, SUM(total_transactions) AS total_transactions " +
+                     "FROM sales_rollups WHERE period_type = ?";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setString(1, date.toString());
-            pstmt.setDouble(2, totalSales);
-            pstmt.setDouble(3, totalProfit);
-            pstmt.setInt(4, totalTransactions);
-
-            pstmt.executeUpdate();
-            logger.info("Sales report added for date: {}", date);
+            pstmt.setString(1, YEAR);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    Money total = MoneyColumns.get(rs, "total_sales");
+                    int count = rs.getInt("total_transactions");
+                    return new InvoiceAggregate(total, count, total.dividedBy(count));
+                }
+            }
         } catch (SQLException e) {
-            logger.error("Error adding sales report", e);
+            logger.error("Error fetching all-time sales rollup", e);
         }
+        return new InvoiceAggregate(Money.ZERO, 0, Money.ZERO);
     }
 
-    private void updateSalesReport(int id, double totalSales, double totalProfit, int totalTransactions) {
-        String sql = "UPDATE sales_reports SET total_sales = ?, total_profit = ?, total_transactions = ? WHERE id = ?";
+    private PeriodSummary getPeriodSummary(String periodType, LocalDate periodStart, LocalDate periodEndExclusive) {
+        String sql = "SELECT total_sales, total_profit, total_transactions FROM sales_rollups " +
+                     "WHERE period_type = ? AND period_start = ?";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setDouble(1, totalSales);
-            pstmt.setDouble(2, totalProfit);
-            pstmt.setInt(3, totalTransactions);
-            pstmt.setInt(4, id);
-
-            pstmt.executeUpdate();
-            logger.info("Sales report updated for ID: {}", id);
+            pstmt.setString(1, periodType);
+            pstmt.setString(2, periodStart.toString());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new PeriodSummary(periodStart, periodEndExclusive,
+                        MoneyColumns.get(rs, "total_sales"), MoneyColumns.get(rs, "total_profit"),
+                        rs.getInt("total_transactions"));
+                }
+            }
         } catch (SQLException e) {
-            logger.error("Error updating sales report", e);
+            logger.error("Error fetching sales rollup", e);
         }
+        return new PeriodSummary(periodStart, periodEndExclusive, Money.ZERO, Money.ZERO, 0);
     }
 
     public SalesReport getSalesReportByDate(LocalDate date) {
@@ -105,13 +258,13 @@ public class SalesReportDAO {
 
     public List<SalesReport> getMonthlyReports(int year, int month) {
         List<SalesReport> reports = new ArrayList<>();
-        String sql = "SELECT * FROM sales_reports WHERE CAST(strftime('%Y', sale_date) AS INTEGER) = ? " +
-                     "AND CAST(strftime('%m', sale_date) AS INTEGER) = ? ORDER BY sale_date DESC";
+        String sql = "SELECT * FROM sales_reports WHERE sale_date >= ? AND sale_date < ? ORDER BY sale_date DESC";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setInt(1, year);
-            pstmt.setInt(2, month);
+            LocalDate firstDay = LocalDate.of(year, month, 1);
+            pstmt.setString(1, firstDay.toString());
+            pstmt.setString(2, firstDay.plusMonths(1).toString());
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
                     reports.add(mapResultSetToSalesReport(rs));
@@ -142,9 +295,9 @@ public class SalesReportDAO {
     private SalesReport mapResultSetToSalesReport(ResultSet rs) throws SQLException {
         SalesReport report = new SalesReport();
         report.setId(rs.getInt("id"));
-        report.setSaleDate(rs.getDate("sale_date").toLocalDate());
-        report.setTotalSales(rs.getDouble("total_sales"));
-        report.setTotalProfit(rs.getDouble("total_profit"));
+        report.setSaleDate(rs.getObject("sale_date", LocalDate.class));
+        report.setTotalSales(MoneyColumns.get(rs, "total_sales"));
+        report.setTotalProfit(MoneyColumns.get(rs, "total_profit"));
         report.setTotalTransactions(rs.getInt("total_transactions"));
         return report;
     }
@@ -1,60 +1,146 @@
 package com.kiranastore.database;
 
+import com.kiranastore.config.AppConfig;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseConnection {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseConnection.class);
-    
-    // Database configuration - you can change these values
-    private static final String DB_TYPE = "mysql"; // Change to "sqlite" to use SQLite
-    private static final String MYSQL_URL = "jdbc:mysql://localhost:3306/kiranastore?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true";
-    private static final String MYSQL_USERNAME = "root";
-    private static final String MYSQL_PASSWORD = "kaif123"; // Change this to your MySQL password
-    private static final String SQLITE_URL = "jdbc:sqlite:kiranastore.db";
-    
-    private static Connection connection;
+
+    // Database configuration - override in kiranastore.properties or with -Dkiranastore.<key>
+    private static final String DEFAULT_DB_TYPE = "mysql"; // Set db.type=sqlite to use the embedded database
+    private static final String DEFAULT_MYSQL_URL = "jdbc:mysql://localhost:3306/kiranastore?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true";
+    private static final String DEFAULT_MYSQL_USERNAME = "root";
+    private static final String DEFAULT_MYSQL_PASSWORD = "kaif123"; // Change this to your MySQL password
+    private static final String DEFAULT_SQLITE_PATH = "kiranastore.db";
+
+    // Connection pool configuration
+    private static final String POOL_NAME = "KiranaStorePool";
+    private static final int DEFAULT_MAX_POOL_SIZE = 10;
+    private static final int DEFAULT_MIN_IDLE = 2;
+    private static final long CONNECTION_TIMEOUT_MS = 10_000;
+    private static final long VALIDATION_TIMEOUT_MS = 3_000;
+    private static final long IDLE_TIMEOUT_MS = 300_000;
+    private static final long MAX_LIFETIME_MS = 1_800_000;
+    private static final long LEAK_DETECTION_THRESHOLD_MS = 30_000;
+    private static final int SQLITE_BUSY_TIMEOUT_MS = 5_000;
+
+    private static final SqlDialect dialect =
+        SqlDialect.fromName(AppConfig.get().getString("db.type", DEFAULT_DB_TYPE));
+    private static final PoolMetricsTracker metricsTracker = new PoolMetricsTracker();
+    private static volatile HikariDataSource dataSource;
 
     static {
         try {
-            if ("mysql".equals(DB_TYPE)) {
-                Class.forName("com.mysql.cj.jdbc.Driver");
-                logger.info("MySQL JDBC driver loaded successfully");
-            } else {
-                Class.forName("org.sqlite.JDBC");
-                logger.info("SQLite JDBC driver loaded successfully");
-            }
+            Class.forName(dialect.getDriverClassName());
+            logger.info("{} JDBC driver loaded successfully", dialect.getName());
         } catch (ClassNotFoundException e) {
             logger.error("JDBC driver not found", e);
             throw new RuntimeException("Failed to load JDBC driver", e);
         }
     }
 
-    public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            if ("mysql".equals(DB_TYPE)) {
-                connection = DriverManager.getConnection(MYSQL_URL, MYSQL_USERNAME, MYSQL_PASSWORD);
-                logger.info("Connected to MySQL database");
-            } else {
-                connection = DriverManager.getConnection(SQLITE_URL);
-                logger.info("Connected to SQLite database");
+    public static SqlDialect getDialect() {
+        return dialect;
+    }
+
+    /**
+     * Returns the shared pooled data source, creating it on first use.
+     * Closing a connection obtained from it returns the connection to the pool.
+     */
+    public static DataSource getDataSource() {
+        HikariDataSource ds = dataSource;
+        if (ds == null || ds.isClosed()) {
+            synchronized (DatabaseConnection.class) {
+                ds = dataSource;
+                if (ds == null || ds.isClosed()) {
+                    ds = createDataSource();
+                    dataSource = ds;
+                }
             }
-            connection.setAutoCommit(true);
         }
-        return connection;
+        return ds;
+    }
+
+    public static Connection getConnection() throws SQLException {
+        return getDataSource().getConnection();
+    }
+
+    /**
+     * Snapshot of the pool gauges together with borrow latency and usage counters.
+     */
+    public static PoolStats getPoolStats() {
+        HikariDataSource ds = dataSource;
+        HikariPoolMXBean pool = ds != null && !ds.isClosed() ? ds.getHikariPoolMXBean() : null;
+        if (pool == null) {
+            return metricsTracker.snapshot(0, 0, 0, 0);
+        }
+        return metricsTracker.snapshot(
+            pool.getActiveConnections(),
+            pool.getIdleConnections(),
+            pool.getTotalConnections(),
+            pool.getThreadsAwaitingConnection()
+        );
     }
 
     public static void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                logger.info("Database connection closed");
+        synchronized (DatabaseConnection.class) {
+            if (dataSource != null && !dataSource.isClosed()) {
+                logger.info("Connection pool stats at shutdown: {}", getPoolStats());
+                dataSource.close();
+                logger.info("Database connection pool closed");
             }
-        } catch (SQLException e) {
-            logger.error("Error closing database connection", e);
+            dataSource = null;
         }
     }
+
+    private static HikariDataSource createDataSource() {
+        AppConfig appConfig = AppConfig.get();
+        int maxPoolSize = appConfig.getInt("db.pool.maxSize", DEFAULT_MAX_POOL_SIZE);
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(POOL_NAME);
+        config.setDriverClassName(dialect.getDriverClassName());
+        if (dialect == SqlDialect.MYSQL) {
+            config.setJdbcUrl(appConfig.getString("db.mysql.url", DEFAULT_MYSQL_URL));
+            config.setUsername(appConfig.getString("db.mysql.username", DEFAULT_MYSQL_USERNAME));
+            config.setPassword(appConfig.getString("db.mysql.password", DEFAULT_MYSQL_PASSWORD));
+            config.addDataSourceProperty("cachePrepStmts", "true");
+            config.addDataSourceProperty("prepStmtCacheSize", "250");
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            config.addDataSourceProperty("useServerPrepStmts", "true");
+            config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        } else {
+            config.setJdbcUrl("jdbc:sqlite:" + appConfig.getString("db.sqlite.path", DEFAULT_SQLITE_PATH));
+            // WAL lets the dashboard read while the counter writes; NORMAL sync is durable in WAL mode
+            config.addDataSourceProperty("journal_mode", "WAL");
+            config.addDataSourceProperty("synchronous", "NORMAL");
+            config.addDataSourceProperty("foreign_keys", "true");
+            config.addDataSourceProperty("busy_timeout", String.valueOf(SQLITE_BUSY_TIMEOUT_MS));
+            // Store timestamps as text in the same format as CURRENT_TIMESTAMP so range filters compare correctly
+            config.addDataSourceProperty("date_class", "TEXT");
+            config.addDataSourceProperty("date_string_format", "yyyy-MM-dd HH:mm:ss");
+        }
+        config.setAutoCommit(true);
+        config.setMaximumPoolSize(maxPoolSize);
+        config.setMinimumIdle(Math.min(appConfig.getInt("db.pool.minIdle", DEFAULT_MIN_IDLE), maxPoolSize));
+        config.setConnectionTimeout(CONNECTION_TIMEOUT_MS);
+        config.setValidationTimeout(VALIDATION_TIMEOUT_MS);
+        config.setIdleTimeout(IDLE_TIMEOUT_MS);
+        config.setMaxLifetime(MAX_LIFETIME_MS);
+        config.setLeakDetectionThreshold(LEAK_DETECTION_THRESHOLD_MS);
+        // Start the pool even if the server is down; getConnection() reports the failure instead
+        config.setInitializationFailTimeout(-1);
+        config.setMetricsTrackerFactory((poolName, poolStats) -> metricsTracker);
+
+        HikariDataSource ds = new HikariDataSource(config);
+        logger.info("Connection pool started for {} database (max size {})", dialect.getName(), maxPoolSize);
+        return ds;
+    }
 }
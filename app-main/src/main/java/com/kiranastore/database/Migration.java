@@ -0,0 +1,22 @@
+package com.kiranastore.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * One ordered step of the schema. Applied migrations are recorded in the
+ * schema_version table together with their checksum.
+ */
+public interface Migration {
+    int getVersion();
+
+    String getDescription();
+
+    /**
+     * Checksum of the migration's definition, used to detect edits to a
+     * migration that has already been applied.
+     */
+    long getChecksum();
+
+    void apply(Connection conn) throws SQLException;
+}
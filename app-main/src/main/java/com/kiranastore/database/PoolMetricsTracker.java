@@ -0,0 +1,53 @@
+package com.kiranastore.database;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects borrow latency and usage counters reported by the connection pool.
+ */
+class PoolMetricsTracker implements IMetricsTracker {
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder borrowNanos = new LongAdder();
+    private final LongAccumulator maxBorrowNanos = new LongAccumulator(Long::max, 0);
+    private final LongAdder usageCount = new LongAdder();
+    private final LongAdder usageMillis = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder connectionsCreated = new LongAdder();
+
+    @Override
+    public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+        connectionsCreated.increment();
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        borrowCount.increment();
+        borrowNanos.add(elapsedAcquiredNanos);
+        maxBorrowNanos.accumulate(elapsedAcquiredNanos);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        usageCount.increment();
+        usageMillis.add(elapsedBorrowedMillis);
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeoutCount.increment();
+    }
+
+    PoolStats snapshot(int active, int idle, int total, int waiting) {
+        long borrows = borrowCount.sum();
+        long usages = usageCount.sum();
+        double averageBorrowMicros = borrows == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(borrowNanos.sum()) / (double) borrows;
+        double averageUsageMillis = usages == 0 ? 0 : usageMillis.sum() / (double) usages;
+        return new PoolStats(active, idle, total, waiting, borrows, timeoutCount.sum(),
+            averageBorrowMicros, TimeUnit.NANOSECONDS.toMicros(maxBorrowNanos.get()),
+            averageUsageMillis, connectionsCreated.sum());
+    }
+}
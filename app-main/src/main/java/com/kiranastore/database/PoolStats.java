@@ -0,0 +1,86 @@
+package com.kiranastore.database;
+
+public class PoolStats {
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int totalConnections;
+    private final int threadsAwaitingConnection;
+    private final long borrowCount;
+    private final long timeoutCount;
+    private final double averageBorrowMicros;
+    private final long maxBorrowMicros;
+    private final double averageUsageMillis;
+    private final long connectionsCreated;
+
+    public PoolStats(int activeConnections, int idleConnections, int totalConnections,
+                     int threadsAwaitingConnection, long borrowCount, long timeoutCount,
+                     double averageBorrowMicros, long maxBorrowMicros, double averageUsageMillis,
+                     long connectionsCreated) {
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.totalConnections = totalConnections;
+        this.threadsAwaitingConnection = threadsAwaitingConnection;
+        this.borrowCount = borrowCount;
+        this.timeoutCount = timeoutCount;
+        this.averageBorrowMicros = averageBorrowMicros;
+        this.maxBorrowMicros = maxBorrowMicros;
+        this.averageUsageMillis = averageUsageMillis;
+        this.connectionsCreated = connectionsCreated;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections;
+    }
+
+    public int getThreadsAwaitingConnection() {
+        return threadsAwaitingConnection;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    // Average time a caller waited in getConnection(), including validation on borrow
+    public double getAverageBorrowMicros() {
+        return averageBorrowMicros;
+    }
+
+    public long getMaxBorrowMicros() {
+        return maxBorrowMicros;
+    }
+
+    // Average time a borrowed connection was held before being returned
+    public double getAverageUsageMillis() {
+        return averageUsageMillis;
+    }
+
+    public long getConnectionsCreated() {
+        return connectionsCreated;
+    }
+
+    @Override
+    public String toString() {
+        return "active=" + activeConnections +
+               ", idle=" + idleConnections +
+               ", total=" + totalConnections +
+               ", waiting=" + threadsAwaitingConnection +
+               ", borrows=" + borrowCount +
+               ", timeouts=" + timeoutCount +
+               ", avgBorrow=" + String.format("%.1f", averageBorrowMicros) + "us" +
+               ", maxBorrow=" + maxBorrowMicros + "us" +
+               ", avgUsage=" + String.format("%.1f", averageUsageMillis) + "ms" +
+               ", created=" + connectionsCreated;
+    }
+}
@@ -0,0 +1,131 @@
+package com.kiranastore.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Migration that adds the secondary indexes the DAOs rely on. Each index is
+ * checked against the database metadata and created only if no equivalent
+ * index exists, so stores that already have some of them migrate cleanly.
+ */
+public class SchemaIndexes implements Migration {
+    private static final Logger logger = LoggerFactory.getLogger(SchemaIndexes.class);
+
+    private static final List<IndexDefinition> INDEXES = List.of(
+        new IndexDefinition("idx_invoices_invoice_date", "invoices", "invoice_date", false),
+        new IndexDefinition("idx_invoice_items_invoice_id", "invoice_items", "invoice_id", false),
+        new IndexDefinition("idx_invoice_items_product_id", "invoice_items", "product_id", false),
+        new IndexDefinition("uq_sales_reports_sale_date", "sales_reports", "sale_date", true),
+        new IndexDefinition("idx_stock_movements_product_id", "stock_movements", "product_id", false)
+    );
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    @Override
+    public String getDescription() {
+        return "add indexes";
+    }
+
+    @Override
+    public long getChecksum() {
+        CRC32 crc = new CRC32();
+        for (IndexDefinition index : INDEXES) {
+            crc.update(index.createSql().getBytes(StandardCharsets.UTF_8));
+        }
+        return crc.getValue();
+    }
+
+    @Override
+    public void apply(Connection conn) throws SQLException {
+        ensureIndexes(conn);
+    }
+
+    public static void ensureIndexes(Connection conn) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        try (Statement stmt = conn.createStatement()) {
+            for (IndexDefinition index : INDEXES) {
+                if (hasEquivalentIndex(metaData, conn.getCatalog(), index)) {
+                    continue;
+                }
+                if (index.unique && "sales_reports".equals(index.table)) {
+                    removeDuplicateSalesReports(stmt);
+                }
+                stmt.execute(index.createSql());
+                logger.info("Index {} created on {}({})", index.name, index.table, index.column);
+            }
+
+            for (IndexDefinition index : INDEXES) {
+                if (!hasEquivalentIndex(metaData, conn.getCatalog(), index)) {
+                    throw new SQLException("Index verification failed for " + index.name);
+                }
+            }
+        }
+        logger.info("Database indexes verified");
+    }
+
+    /**
+     * An index is equivalent if it has the expected name, or leads with the expected
+     * column (for example the implicit index MySQL creates for a foreign key).
+     */
+    private static boolean hasEquivalentIndex(DatabaseMetaData metaData, String catalog,
+                                              IndexDefinition index) throws SQLException {
+        try (ResultSet rs = metaData.getIndexInfo(catalog, null, index.table, index.unique, false)) {
+            while (rs.next()) {
+                String name = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (name == null || column == null) {
+                    continue;
+                }
+                if (name.equalsIgnoreCase(index.name)) {
+                    return true;
+                }
+                if (rs.getInt("ORDINAL_POSITION") == 1 && column.equalsIgnoreCase(index.column)
+                        && (!index.unique || !rs.getBoolean("NON_UNIQUE"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Keeps the most recent row for each date so the unique index can be built
+    private static void removeDuplicateSalesReports(Statement stmt) throws SQLException {
+        int removed = stmt.executeUpdate(
+            "DELETE FROM sales_reports WHERE id NOT IN (" +
+            "SELECT keep_id FROM (SELECT MAX(id) AS keep_id FROM sales_reports GROUP BY sale_date) latest)"
+        );
+        if (removed > 0) {
+            logger.warn("Removed {} duplicate sales report rows before adding unique index", removed);
+        }
+    }
+
+    private static class IndexDefinition {
+        private final String name;
+        private final String table;
+        private final String column;
+        private final boolean unique;
+
+        IndexDefinition(String name, String table, String column, boolean unique) {
+            this.name = name;
+            this.table = table;
+            this.column = column;
+            this.unique = unique;
+        }
+
+        String createSql() {
+            return "CREATE " + (unique ? "UNIQUE " : "") + "INDEX " + name + " ON " + table + " (" + column + ")";
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.kiranastore.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Brings the schema up to date by applying pending migrations in version order.
+ * When the schema is current the only cost is a single read of schema_version.
+ */
+public class SchemaMigrator {
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    private static final String CREATE_VERSION_TABLE =
+        "CREATE TABLE IF NOT EXISTS schema_version (" +
+        "version INT PRIMARY KEY," +
+        "description VARCHAR(200) NOT NULL," +
+        "checksum BIGINT NOT NULL," +
+        "execution_ms INT NOT NULL," +
+        "installed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+        ")";
+
+    private final List<Migration> migrations;
+
+    public SchemaMigrator(SqlDialect dialect) {
+        this.migrations = List.of(
+            SqlScriptMigration.fromResource(dialect, "V1__create_tables.sql"),
+            new SchemaIndexes(),
+            SqlScriptMigration.fromResource(dialect, "V3__add_invoice_item_unit_cost.sql"),
+            SqlScriptMigration.fromResource(dialect, "V4__add_sales_rollups.sql"),
+            SqlScriptMigration.fromResource(dialect, "V5__add_invoice_sequences.sql"),
+            SqlScriptMigration.fromResource(dialect, "V6__backfill_sales_reports.sql")
+        );
+    }
+
+    /**
+     * @return the number of migrations applied
+     */
+    public int migrate(Connection conn) throws SQLException {
+        Map<Integer, Long> applied = readAppliedVersions(conn);
+        int count = 0;
+
+        for (Migration migration : migrations) {
+            Long checksum = applied.get(migration.getVersion());
+            if (checksum != null) {
+                if (checksum != migration.getChecksum()) {
+                    throw new SQLException("Checksum mismatch for applied migration V" + migration.getVersion() +
+                                           " (" + migration.getDescription() + ")");
+                }
+                continue;
+            }
+
+            long start = System.currentTimeMillis();
+            logger.info("Applying migration V{}: {}", migration.getVersion(), migration.getDescription());
+            migration.apply(conn);
+            recordMigration(conn, migration, System.currentTimeMillis() - start);
+            count++;
+        }
+
+        if (count == 0) {
+            logger.info("Database schema is up to date (version {})", latestVersion());
+        } else {
+            logger.info("Applied {} migration(s), schema now at version {}", count, latestVersion());
+        }
+        return count;
+    }
+
+    private Map<Integer, Long> readAppliedVersions(Connection conn) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getLong("checksum"));
+            }
+        } catch (SQLException e) {
+            if (versionTableExists(conn)) {
+                throw e;
+            }
+            // First run against this database: the version table does not exist yet
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(CREATE_VERSION_TABLE);
+            }
+            logger.info("Schema version table created");
+        }
+        return applied;
+    }
+
+    private boolean versionTableExists(Connection conn) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getTables(conn.getCatalog(), null, "schema_version", null)) {
+            return rs.next();
+        }
+    }
+
+    private void recordMigration(Connection conn, Migration migration, long elapsedMs) throws SQLException {
+        String sql = "INSERT INTO schema_version (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, migration.getVersion());
+            pstmt.setString(2, migration.getDescription());
+            pstmt.setLong(3, migration.getChecksum());
+            pstmt.setInt(4, (int) elapsedMs);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private int latestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).getVersion();
+    }
+}
@@ -0,0 +1,72 @@
+package com.kiranastore.database;
+
+/**
+ * The SQL flavours the application can run against.
+ */
+public enum SqlDialect {
+    MYSQL("mysql", "com.mysql.cj.jdbc.Driver"),
+    SQLITE("sqlite", "org.sqlite.JDBC");
+
+    private final String name;
+    private final String driverClassName;
+
+    SqlDialect(String name, String driverClassName) {
+        this.name = name;
+        this.driverClassName = driverClassName;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDriverClassName() {
+        return driverClassName;
+    }
+
+    /**
+     * Upsert clause appended to an INSERT that adds the inserted values to the
+     * existing row's columns when {@code keyColumn} already exists.
+     */
+    public String onConflictAdd(String keyColumn, String... columns) {
+        StringBuilder sql = new StringBuilder(conflictPrefix(keyColumn));
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(columns[i]).append(" = ").append(columns[i]).append(" + ").append(insertedValue(columns[i]));
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Upsert clause appended to an INSERT that overwrites the existing row's
+     * columns when {@code keyColumn} already exists.
+     */
+    public String onConflictReplace(String keyColumn, String... columns) {
+        StringBuilder sql = new StringBuilder(conflictPrefix(keyColumn));
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(columns[i]).append(" = ").append(insertedValue(columns[i]));
+        }
+        return sql.toString();
+    }
+
+    private String conflictPrefix(String keyColumn) {
+        return this == MYSQL ? " ON DUPLICATE KEY UPDATE " : " ON CONFLICT(" + keyColumn + ") DO UPDATE SET ";
+    }
+
+    private String insertedValue(String column) {
+        return this == MYSQL ? "VALUES(" + column + ")" : "excluded." + column;
+    }
+
+    public static SqlDialect fromName(String name) {
+        for (SqlDialect dialect : values()) {
+            if (dialect.name.equalsIgnoreCase(name)) {
+                return dialect;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported database type: " + name);
+    }
+}
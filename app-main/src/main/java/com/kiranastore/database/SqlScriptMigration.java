@@ -0,0 +1,98 @@
+package com.kiranastore.database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A migration backed by a classpath script {@code /db/migration/<dialect>/V<version>__<description>.sql}.
+ * Statements are separated by semicolons; lines starting with {@code --} are comments.
+ */
+public class SqlScriptMigration implements Migration {
+    private static final String SCRIPT_LOCATION = "/db/migration/";
+
+    private final int version;
+    private final String description;
+    private final String script;
+    private final long checksum;
+
+    private SqlScriptMigration(int version, String description, String script) {
+        this.version = version;
+        this.description = description;
+        this.script = script;
+        CRC32 crc = new CRC32();
+        crc.update(script.getBytes(StandardCharsets.UTF_8));
+        this.checksum = crc.getValue();
+    }
+
+    public static SqlScriptMigration fromResource(SqlDialect dialect, String fileName) {
+        int separator = fileName.indexOf("__");
+        if (!fileName.startsWith("V") || separator < 0 || !fileName.endsWith(".sql")) {
+            throw new IllegalArgumentException("Invalid migration script name: " + fileName);
+        }
+        int version = Integer.parseInt(fileName.substring(1, separator));
+        String description = fileName.substring(separator + 2, fileName.length() - 4).replace('_', ' ');
+
+        try (InputStream in = SqlScriptMigration.class.getResourceAsStream(SCRIPT_LOCATION + dialect.getName() + "/" + fileName)) {
+            if (in == null) {
+                throw new IllegalStateException("Migration script not found: " + fileName);
+            }
+            // Normalise line endings so checkouts on different platforms agree on the checksum
+            String script = new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+            return new SqlScriptMigration(version, description, script);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read migration script: " + fileName, e);
+        }
+    }
+
+    @Override
+    public int getVersion() {
+        return version;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public long getChecksum() {
+        return checksum;
+    }
+
+    @Override
+    public void apply(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : splitStatements(script)) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    static List<String> splitStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : script.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String sql = current.toString().trim();
+                statements.add(sql.substring(0, sql.length() - 1));
+                current.setLength(0);
+            }
+        }
+        if (!current.toString().isBlank()) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+}
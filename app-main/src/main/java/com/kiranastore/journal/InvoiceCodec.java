@@ -0,0 +1,113 @@
+package com.kiranastore.journal;
+
+import com.kiranastore.model.Invoice;
+import com.kiranastore.model.InvoiceItem;
+import com.kiranastore.model.Money;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary form of a journal entry. Only what is needed to post the invoice is kept;
+ * database IDs are assigned when it is posted.
+ *
+ * Version 2 stores amounts as paise; version 1 records, which stored them as doubles,
+ * are still read.
+ */
+final class InvoiceCodec {
+    private static final byte FORMAT_VERSION = 2;
+    private static final byte DOUBLE_AMOUNTS_VERSION = 1;
+
+    private InvoiceCodec() {
+    }
+
+    static byte[] encode(long sequence, Invoice invoice) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(sequence);
+            writeString(out, invoice.getInvoiceNumber());
+            writeString(out, invoice.getCustomerName());
+            writeString(out, invoice.getCustomerPhone());
+            writeString(out, invoice.getInvoiceDate().toString());
+            writeString(out, invoice.getPaymentMethod());
+            out.writeInt(invoice.getTotalItems());
+            out.writeLong(invoice.getSubtotal().getPaise());
+            out.writeLong(invoice.getTax().getPaise());
+            out.writeLong(invoice.getTotalAmount().getPaise());
+
+            List<InvoiceItem> items = invoice.getItems();
+            out.writeInt(items.size());
+            for (InvoiceItem item : items) {
+                out.writeInt(item.getProductId());
+                writeString(out, item.getProductName());
+                out.writeInt(item.getQuantity());
+                out.writeLong(item.getUnitPrice().getPaise());
+                out.writeLong(item.getUnitCost().getPaise());
+                out.writeLong(item.getLineTotal().getPaise());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    static JournalEntry decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION && version != DOUBLE_AMOUNTS_VERSION) {
+                throw new IOException("Unsupported journal record version " + version);
+            }
+            long sequence = in.readLong();
+
+            Invoice invoice = new Invoice();
+            invoice.setInvoiceNumber(readString(in));
+            invoice.setCustomerName(readString(in));
+            invoice.setCustomerPhone(readString(in));
+            invoice.setInvoiceDate(LocalDateTime.parse(readString(in)));
+            invoice.setPaymentMethod(readString(in));
+            invoice.setTotalItems(in.readInt());
+            invoice.setSubtotal(readMoney(in, version));
+            invoice.setTax(readMoney(in, version));
+            invoice.setTotalAmount(readMoney(in, version));
+
+            int itemCount = in.readInt();
+            List<InvoiceItem> items = new ArrayList<>(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                InvoiceItem item = new InvoiceItem();
+                item.setProductId(in.readInt());
+                item.setProductName(readString(in));
+                item.setQuantity(in.readInt());
+                item.setUnitPrice(readMoney(in, version));
+                item.setUnitCost(readMoney(in, version));
+                item.setLineTotal(readMoney(in, version));
+                items.add(item);
+            }
+            invoice.setItems(items);
+            return new JournalEntry(sequence, invoice);
+        }
+    }
+
+    private static Money readMoney(DataInputStream in, byte version) throws IOException {
+        if (version == DOUBLE_AMOUNTS_VERSION) {
+            return Money.of(BigDecimal.valueOf(in.readDouble()));
+        }
+        return Money.ofPaise(in.readLong());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
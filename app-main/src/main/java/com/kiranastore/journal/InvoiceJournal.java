@@ -0,0 +1,278 @@
+package com.kiranastore.journal;
+
+import com.kiranastore.model.Invoice;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Durable append-only log of invoices that still have to be posted to the database.
+ *
+ * Records go into memory-mapped segment files as [length][CRC32][payload] and are
+ * forced to disk before append returns. The length is written last, so a record cut
+ * short by a crash reads as the end of the log; a CRC mismatch is treated the same.
+ * A checkpoint file holds the sequence of the last posted invoice. Segments that only
+ * hold posted invoices are deleted once a newer segment exists.
+ *
+ * Unposted entries are also kept in memory in append order, for the replay worker.
+ */
+public class InvoiceJournal implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceJournal.class);
+    private static final String SEGMENT_PREFIX = "invoices-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int RECORD_HEADER_BYTES = 8;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final List<Segment> segments = new ArrayList<>();
+    private final Deque<JournalEntry> pending = new ArrayDeque<>();
+    private long nextSequence;
+    private long checkpoint;
+
+    private InvoiceJournal(Path directory, int segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Opens the journal in the given directory, creating it if needed, and loads every
+     * entry that has not been posted yet.
+     */
+    public static InvoiceJournal open(Path directory, int segmentBytes) throws IOException {
+        Files.createDirectories(directory);
+        InvoiceJournal journal = new InvoiceJournal(directory, segmentBytes);
+        journal.load();
+        return journal;
+    }
+
+    /**
+     * Writes the invoice to disk and queues it for posting.
+     *
+     * @return the entry's sequence number
+     */
+    public synchronized long append(Invoice invoice) throws IOException {
+        long sequence = nextSequence;
+        byte[] payload = InvoiceCodec.encode(sequence, invoice);
+        int recordBytes = RECORD_HEADER_BYTES + payload.length;
+
+        Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || segment.writePosition + recordBytes > segment.buffer.capacity()) {
+            segment = createSegment(sequence, Math.max(segmentBytes, recordBytes));
+        }
+
+        int position = segment.writePosition;
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        segment.buffer.putInt(position + 4, (int) crc.getValue());
+        segment.buffer.put(position + RECORD_HEADER_BYTES, payload);
+        segment.buffer.putInt(position, payload.length);
+        segment.buffer.force(position, recordBytes);
+
+        segment.writePosition = position + recordBytes;
+        segment.lastSequence = sequence;
+        nextSequence = sequence + 1;
+        pending.addLast(new JournalEntry(sequence, invoice));
+        return sequence;
+    }
+
+    /**
+     * The oldest entry not yet posted, or null if everything is posted.
+     */
+    public synchronized JournalEntry peekPending() {
+        return pending.peekFirst();
+    }
+
+    /**
+     * Every entry not yet posted, oldest first.
+     */
+    public synchronized List<JournalEntry> getPending() {
+        return new ArrayList<>(pending);
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Marks the oldest pending entry as posted. Entries must be acknowledged in order.
+     */
+    public synchronized void acknowledge(JournalEntry entry) throws IOException {
+        if (pending.peekFirst() != entry) {
+            throw new IllegalStateException("Journal entries must be acknowledged in order: " + entry);
+        }
+        pending.removeFirst();
+        writeCheckpoint(entry.getSequence());
+        deletePostedSegments();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+            segment.channel.close();
+        }
+        segments.clear();
+    }
+
+    private void load() throws IOException {
+        checkpoint = readCheckpoint();
+        nextSequence = checkpoint + 1;
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        // Names carry the zero-padded first sequence, so name order is append order
+        files.sort(null);
+
+        for (Path file : files) {
+            long size = Files.size(file);
+            Segment segment = mapSegment(file, size > 0 ? (int) size : segmentBytes, firstSequence(file));
+            segments.add(segment);
+            scan(segment);
+        }
+        deletePostedSegments();
+        if (!pending.isEmpty()) {
+            logger.info("Invoice journal has {} unposted invoice(s)", pending.size());
+        }
+    }
+
+    private void scan(Segment segment) throws IOException {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + RECORD_HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER_BYTES + length > buffer.capacity()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + RECORD_HEADER_BYTES, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                logger.warn("Torn record at offset {} of {}; ignoring the rest of the segment", position, segment.path);
+                break;
+            }
+
+            JournalEntry entry = InvoiceCodec.decode(payload);
+            if (entry.getSequence() > checkpoint) {
+                pending.addLast(entry);
+            }
+            segment.lastSequence = entry.getSequence();
+            nextSequence = Math.max(nextSequence, entry.getSequence() + 1);
+            position += RECORD_HEADER_BYTES + length;
+        }
+        segment.writePosition = position;
+
+        // Clear whatever a torn write left behind so new records are not mixed with it
+        if (position + RECORD_HEADER_BYTES <= buffer.capacity() && buffer.getLong(position) != 0) {
+            byte[] zeros = new byte[buffer.capacity() - position];
+            buffer.put(position, zeros);
+            buffer.force();
+        }
+    }
+
+    private Segment createSegment(long firstSequence, int size) throws IOException {
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        Segment segment = mapSegment(file, size, firstSequence);
+        segments.add(segment);
+        logger.info("Started journal segment {}", file.getFileName());
+        return segment;
+    }
+
+    private static Segment mapSegment(Path file, int size, long firstSequence) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        return new Segment(file, channel, buffer, firstSequence);
+    }
+
+    private void deletePostedSegments() {
+        // Never the last segment: it is still being written to
+        while (segments.size() > 1 && segments.get(0).lastSequence <= checkpoint) {
+            Segment segment = segments.remove(0);
+            try {
+                segment.channel.close();
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                // Still mapped on some platforms; it is removed on the next start instead
+                logger.debug("Could not delete journal segment {}", segment.path, e);
+            }
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < 12) {
+            logger.warn("Ignoring damaged journal checkpoint; unposted invoices will be checked again");
+            return 0;
+        }
+        long sequence = buffer.getLong();
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, 8);
+        if ((int) crc.getValue() != buffer.getInt()) {
+            logger.warn("Ignoring damaged journal checkpoint; unposted invoices will be checked again");
+            return 0;
+        }
+        return sequence;
+    }
+
+    /**
+     * Not forced to disk: losing the latest checkpoint only means posting a few invoices
+     * again, which the database side skips by invoice number.
+     */
+    private void writeCheckpoint(long sequence) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(12);
+        buffer.putLong(sequence);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, 8);
+        buffer.putInt((int) crc.getValue());
+
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.write(temp, buffer.array());
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpoint = sequence;
+    }
+
+    private static long firstSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static class Segment {
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+        private long lastSequence;
+
+        Segment(Path path, FileChannel channel, MappedByteBuffer buffer, long firstSequence) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.lastSequence = firstSequence - 1;
+        }
+    }
+}
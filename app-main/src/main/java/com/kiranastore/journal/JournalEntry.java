@@ -0,0 +1,30 @@
+package com.kiranastore.journal;
+
+import com.kiranastore.model.Invoice;
+
+/**
+ * One invoice recorded in the journal, numbered in the order it was appended.
+ */
+public class JournalEntry {
+    private final long sequence;
+    private final Invoice invoice;
+
+    public JournalEntry(long sequence, Invoice invoice) {
+        this.sequence = sequence;
+        this.invoice = invoice;
+    }
+
+    // Getters
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Invoice getInvoice() {
+        return invoice;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + invoice.getInvoiceNumber();
+    }
+}
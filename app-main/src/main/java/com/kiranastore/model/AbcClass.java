@@ -0,0 +1,11 @@
+package com.kiranastore.model;
+
+/**
+ * ABC classification of products by their share of revenue: A products bring in most
+ * of it, C products little or none.
+ */
+public enum AbcClass {
+    A,
+    B,
+    C
+}
@@ -0,0 +1,39 @@
+package com.kiranastore.model;
+
+import java.time.LocalDate;
+
+public class DailySales {
+    private final LocalDate date;
+    private final Money totalSales;
+    private final Money totalProfit;
+    private final int totalTransactions;
+
+    public DailySales(LocalDate date, Money totalSales, Money totalProfit, int totalTransactions) {
+        this.date = date;
+        this.totalSales = totalSales;
+        this.totalProfit = totalProfit;
+        this.totalTransactions = totalTransactions;
+    }
+
+    // Getters
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public Money getTotalSales() {
+        return totalSales;
+    }
+
+    public Money getTotalProfit() {
+        return totalProfit;
+    }
+
+    public int getTotalTransactions() {
+        return totalTransactions;
+    }
+
+    @Override
+    public String toString() {
+        return date + " - Sales: Rs." + totalSales;
+    }
+}
@@ -0,0 +1,61 @@
+package com.kiranastore.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Everything the dashboard shows, captured at one point in time.
+ */
+public class DashboardSnapshot {
+    private final InventorySummary inventory;
+    private final List<Product> lowStockProducts;
+    private final InvoiceAggregate allTimeSales;
+    private final List<DailySales> salesTrend;
+    private final LocalDateTime generatedAt;
+
+    public DashboardSnapshot(InventorySummary inventory, List<Product> lowStockProducts,
+                             InvoiceAggregate allTimeSales, List<DailySales> salesTrend,
+                             LocalDateTime generatedAt) {
+        this.inventory = inventory;
+        this.lowStockProducts = List.copyOf(lowStockProducts);
+        this.allTimeSales = allTimeSales;
+        this.salesTrend = List.copyOf(salesTrend);
+        this.generatedAt = generatedAt;
+    }
+
+    // Getters
+    public InventorySummary getInventory() {
+        return inventory;
+    }
+
+    /**
+     * The products lowest on stock, capped at a few entries; the full count is on the inventory summary.
+     */
+    public List<Product> getLowStockProducts() {
+        return lowStockProducts;
+    }
+
+    public InvoiceAggregate getAllTimeSales() {
+        return allTimeSales;
+    }
+
+    /**
+     * One entry per day, oldest first and ending today; days without sales are zero.
+     */
+    public List<DailySales> getSalesTrend() {
+        return salesTrend;
+    }
+
+    public Money getTodaySales() {
+        return salesTrend.isEmpty() ? Money.ZERO : salesTrend.get(salesTrend.size() - 1).getTotalSales();
+    }
+
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "Dashboard at " + generatedAt + " - Today: Rs." + getTodaySales();
+    }
+}
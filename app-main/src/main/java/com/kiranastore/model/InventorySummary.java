@@ -0,0 +1,49 @@
+package com.kiranastore.model;
+
+public class InventorySummary {
+    private final int productCount;
+    private final int totalStockQuantity;
+    private final Money totalInventoryValue;
+    private final Money totalInventoryCost;
+    private final int lowStockCount;
+
+    public InventorySummary(int productCount, int totalStockQuantity, Money totalInventoryValue,
+                            Money totalInventoryCost, int lowStockCount) {
+        this.productCount = productCount;
+        this.totalStockQuantity = totalStockQuantity;
+        this.totalInventoryValue = totalInventoryValue;
+        this.totalInventoryCost = totalInventoryCost;
+        this.lowStockCount = lowStockCount;
+    }
+
+    // Getters
+    public int getProductCount() {
+        return productCount;
+    }
+
+    public int getTotalStockQuantity() {
+        return totalStockQuantity;
+    }
+
+    public Money getTotalInventoryValue() {
+        return totalInventoryValue;
+    }
+
+    public Money getTotalInventoryCost() {
+        return totalInventoryCost;
+    }
+
+    public int getLowStockCount() {
+        return lowStockCount;
+    }
+
+    // Business methods
+    public Money getPotentialProfit() {
+        return totalInventoryValue.minus(totalInventoryCost);
+    }
+
+    @Override
+    public String toString() {
+        return productCount + " products, " + totalStockQuantity + " units - Value: Rs." + totalInventoryValue;
+    }
+}
@@ -10,9 +10,9 @@ public class Invoice {
     private String customerName;
     private String customerPhone;
     private int totalItems;
-    private double subtotal;
-    private double tax;
-    private double totalAmount;
+    private Money subtotal = Money.ZERO;
+    private Money tax = Money.ZERO;
+    private Money totalAmount = Money.ZERO;
     private String paymentMethod;
     private LocalDateTime invoiceDate;
     private LocalDateTime createdAt;
@@ -24,7 +24,7 @@ public class Invoice {
 
     // Constructor with all fields
     public Invoice(int id, String invoiceNumber, String customerName, String customerPhone,
-                   int totalItems, double subtotal, double tax, double totalAmount,
+                   int totalItems, Money subtotal, Money tax, Money totalAmount,
                    String paymentMethod, LocalDateTime invoiceDate, LocalDateTime createdAt) {
         this.id = id;
         this.invoiceNumber = invoiceNumber;
@@ -80,27 +80,27 @@ public class Invoice {
         this.totalItems = totalItems;
     }
 
-    public double getSubtotal() {
+    public Money getSubtotal() {
         return subtotal;
     }
 
-    public void setSubtotal(double subtotal) {
+    public void setSubtotal(Money subtotal) {
         this.subtotal = subtotal;
     }
 
-    public double getTax() {
+    public Money getTax() {
         return tax;
     }
 
-    public void setTax(double tax) {
+    public void setTax(Money tax) {
         this.tax = tax;
     }
 
-    public double getTotalAmount() {
+    public Money getTotalAmount() {
         return totalAmount;
     }
 
-    public void setTotalAmount(double totalAmount) {
+    public void setTotalAmount(Money totalAmount) {
         this.totalAmount = totalAmount;
     }
 
@@ -148,15 +148,15 @@ public class Invoice {
     }
 
     private void recalculate() {
-        subtotal = items.stream().mapToDouble(InvoiceItem::getLineTotal).sum();
+        subtotal = Money.sum(items, InvoiceItem::getLineTotal);
         totalItems = items.stream().mapToInt(InvoiceItem::getQuantity).sum();
-        tax = subtotal * 0.05;  // 5% tax
-        totalAmount = subtotal + tax;
+        tax = subtotal.percent(5);  // 5% tax
+        totalAmount = subtotal.plus(tax);
     }
 
     @Override
     public String toString() {
-        return "Invoice #" + invoiceNumber + " - Rs." + String.format("%.2f", totalAmount);
+        return "Invoice #" + invoiceNumber + " - Rs." + totalAmount;
     }
 
     @Override
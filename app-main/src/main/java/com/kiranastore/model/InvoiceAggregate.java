@@ -0,0 +1,31 @@
+package com.kiranastore.model;
+
+public class InvoiceAggregate {
+    private final Money totalAmount;
+    private final int invoiceCount;
+    private final Money averageAmount;
+
+    public InvoiceAggregate(Money totalAmount, int invoiceCount, Money averageAmount) {
+        this.totalAmount = totalAmount;
+        this.invoiceCount = invoiceCount;
+        this.averageAmount = averageAmount;
+    }
+
+    // Getters
+    public Money getTotalAmount() {
+        return totalAmount;
+    }
+
+    public int getInvoiceCount() {
+        return invoiceCount;
+    }
+
+    public Money getAverageAmount() {
+        return averageAmount;
+    }
+
+    @Override
+    public String toString() {
+        return invoiceCount + " invoices - Total: Rs." + totalAmount;
+    }
+}
@@ -6,8 +6,9 @@ public class InvoiceItem {
     private int productId;
     private String productName;
     private int quantity;
-    private double unitPrice;
-    private double lineTotal;
+    private Money unitPrice = Money.ZERO;
+    private Money unitCost = Money.ZERO;
+    private Money lineTotal = Money.ZERO;
 
     // Default constructor
     public InvoiceItem() {
@@ -15,13 +16,14 @@ public class InvoiceItem {
 
     // Constructor with all fields
     public InvoiceItem(int id, int invoiceId, int productId, String productName,
-                       int quantity, double unitPrice, double lineTotal) {
+                       int quantity, Money unitPrice, Money unitCost, Money lineTotal) {
         this.id = id;
         this.invoiceId = invoiceId;
         this.productId = productId;
         this.productName = productName;
         this.quantity = quantity;
         this.unitPrice = unitPrice;
+        this.unitCost = unitCost;
         this.lineTotal = lineTotal;
     }
 
@@ -66,25 +68,37 @@ public class InvoiceItem {
         this.quantity = quantity;
     }
 
-    public double getUnitPrice() {
+    public Money getUnitPrice() {
         return unitPrice;
     }
 
-    public void setUnitPrice(double unitPrice) {
+    public void setUnitPrice(Money unitPrice) {
         this.unitPrice = unitPrice;
     }
 
-    public double getLineTotal() {
+    public Money getUnitCost() {
+        return unitCost;
+    }
+
+    public void setUnitCost(Money unitCost) {
+        this.unitCost = unitCost;
+    }
+
+    public Money getLineTotal() {
         return lineTotal;
     }
 
-    public void setLineTotal(double lineTotal) {
+    public void setLineTotal(Money lineTotal) {
         this.lineTotal = lineTotal;
     }
 
     // Business methods
     public void updateLineTotal() {
-        this.lineTotal = quantity * unitPrice;
+        this.lineTotal = unitPrice.times(quantity);
+    }
+
+    public Money getLineProfit() {
+        return unitPrice.minus(unitCost).times(quantity);
     }
 
     public static InvoiceItem create(Product product, int quantity) {
@@ -93,13 +107,18 @@ public class InvoiceItem {
         item.setProductName(product.getName());
         item.setQuantity(quantity);
         item.setUnitPrice(product.getSellingPrice());
-        item.setLineTotal(product.getSellingPrice() * quantity);
+        item.setUnitCost(product.getBuyingPrice());
+        item.setLineTotal(product.getSellingPrice().times(quantity));
         return item;
     }
 
+    public InvoiceItem copy() {
+        return new InvoiceItem(id, invoiceId, productId, productName, quantity, unitPrice, unitCost, lineTotal);
+    }
+
     @Override
     public String toString() {
-        return productName + " x" + quantity + " @ Rs." + String.format("%.2f", unitPrice);
+        return productName + " x" + quantity + " @ Rs." + unitPrice;
     }
 
     @Override
@@ -0,0 +1,188 @@
+package com.kiranastore.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * An amount of rupees held as a whole number of paise, so sums and comparisons are exact.
+ * Maps to DECIMAL(…,2) columns through {@link #toBigDecimal()} and {@link #of(BigDecimal)}.
+ *
+ * Extends Number so amounts can go straight into charts; {@link #doubleValue()} is only
+ * meant for display and ratios, never for arithmetic on money.
+ */
+public final class Money extends Number implements Comparable<Money> {
+    private static final long serialVersionUID = 1L;
+
+    public static final Money ZERO = new Money(0);
+
+    private final long paise;
+    // Formatted lazily and reused; a benign race like String.hashCode
+    private transient String display;
+
+    private Money(long paise) {
+        this.paise = paise;
+    }
+
+    public static Money ofPaise(long paise) {
+        return paise == 0 ? ZERO : new Money(paise);
+    }
+
+    /**
+     * Rounds to the nearest paisa, halves away from zero.
+     */
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            return ZERO;
+        }
+        return ofPaise(amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Parses user input such as "45", "45.5" or "45.50".
+     *
+     * @throws NumberFormatException if the text is not a number
+     */
+    public static Money parse(String text) {
+        return of(new BigDecimal(text.trim()));
+    }
+
+    /**
+     * Adds up one amount per element with a plain long accumulator.
+     */
+    public static <T> Money sum(Collection<? extends T> elements, Function<? super T, Money> amount) {
+        long total = 0;
+        for (T element : elements) {
+            total = Math.addExact(total, amount.apply(element).paise);
+        }
+        return ofPaise(total);
+    }
+
+    public long getPaise() {
+        return paise;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    public Money plus(Money other) {
+        return other.paise == 0 ? this : ofPaise(Math.addExact(paise, other.paise));
+    }
+
+    public Money minus(Money other) {
+        return other.paise == 0 ? this : ofPaise(Math.subtractExact(paise, other.paise));
+    }
+
+    public Money times(int quantity) {
+        return quantity == 1 ? this : ofPaise(Math.multiplyExact(paise, quantity));
+    }
+
+    /**
+     * This amount divided by {@code divisor}, rounded to the nearest paisa; zero if the
+     * divisor is zero.
+     */
+    public Money dividedBy(long divisor) {
+        return divisor == 0 ? ZERO : ofPaise(roundedDivide(paise, divisor));
+    }
+
+    /**
+     * The given percentage of this amount, rounded to the nearest paisa.
+     */
+    public Money percent(int percent) {
+        return ofPaise(roundedDivide(Math.multiplyExact(paise, percent), 100));
+    }
+
+    /**
+     * This amount as a percentage of {@code whole}; zero if the whole is zero.
+     */
+    public double percentOf(Money whole) {
+        return whole.paise == 0 ? 0 : (paise * 100.0) / whole.paise;
+    }
+
+    public boolean isZero() {
+        return paise == 0;
+    }
+
+    public boolean isNegative() {
+        return paise < 0;
+    }
+
+    /**
+     * The amount as shown in the UI, for example "Rs. 1234.50".
+     */
+    public String format() {
+        String text = display;
+        if (text == null) {
+            text = "Rs. " + this;
+            display = text;
+        }
+        return text;
+    }
+
+    @Override
+    public int intValue() {
+        return (int) (paise / 100);
+    }
+
+    @Override
+    public long longValue() {
+        return paise / 100;
+    }
+
+    @Override
+    public float floatValue() {
+        return paise / 100f;
+    }
+
+    @Override
+    public double doubleValue() {
+        return paise / 100.0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(paise, other.paise);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof Money)) return false;
+        return paise == ((Money) obj).paise;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(paise);
+    }
+
+    /**
+     * Plain amount with two decimals, for example "1234.50" or "-0.05".
+     */
+    @Override
+    public String toString() {
+        long abs = Math.abs(paise);
+        long fraction = abs % 100;
+        StringBuilder sb = new StringBuilder(24);
+        if (paise < 0) {
+            sb.append('-');
+        }
+        sb.append(abs / 100).append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction).toString();
+    }
+
+    private static long roundedDivide(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        // Round half away from zero, matching DECIMAL rounding in the database
+        if (Math.abs(remainder) * 2 >= Math.abs(divisor)) {
+            quotient += Long.signum(dividend) * Long.signum(divisor);
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,57 @@
+package com.kiranastore.model;
+
+import java.time.LocalDate;
+
+/**
+ * Sales totals for a month or a year, read from the maintained rollups.
+ */
+public class PeriodSummary {
+    private final LocalDate periodStart;
+    private final LocalDate periodEndExclusive;
+    private final Money totalSales;
+    private final Money totalProfit;
+    private final int totalTransactions;
+
+    public PeriodSummary(LocalDate periodStart, LocalDate periodEndExclusive, Money totalSales,
+                         Money totalProfit, int totalTransactions) {
+        this.periodStart = periodStart;
+        this.periodEndExclusive = periodEndExclusive;
+        this.totalSales = totalSales;
+        this.totalProfit = totalProfit;
+        this.totalTransactions = totalTransactions;
+    }
+
+    // Getters
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public LocalDate getPeriodEndExclusive() {
+        return periodEndExclusive;
+    }
+
+    public Money getTotalSales() {
+        return totalSales;
+    }
+
+    public Money getTotalProfit() {
+        return totalProfit;
+    }
+
+    public int getTotalTransactions() {
+        return totalTransactions;
+    }
+
+    public double getProfitMargin() {
+        return totalProfit.percentOf(totalSales);
+    }
+
+    public Money getAverageTransactionValue() {
+        return totalSales.dividedBy(totalTransactions);
+    }
+
+    @Override
+    public String toString() {
+        return periodStart + " - Sales: Rs." + totalSales + ", Profit: Rs." + totalProfit;
+    }
+}
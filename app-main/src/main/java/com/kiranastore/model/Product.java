@@ -7,8 +7,8 @@ public class Product {
     private String name;
     private String sku;
     private String category;
-    private double buyingPrice;
-    private double sellingPrice;
+    private Money buyingPrice = Money.ZERO;
+    private Money sellingPrice = Money.ZERO;
     private int quantityInStock;
     private int reorderLevel;
     private LocalDateTime createdAt;
@@ -19,8 +19,8 @@ public class Product {
     }
 
     // Constructor with all fields
-    public Product(int id, String name, String sku, String category, double buyingPrice, 
-                   double sellingPrice, int quantityInStock, int reorderLevel, 
+    public Product(int id, String name, String sku, String category, Money buyingPrice, 
+                   Money sellingPrice, int quantityInStock, int reorderLevel, 
                    LocalDateTime createdAt, LocalDateTime updatedAt) {
         this.id = id;
         this.name = name;
@@ -67,19 +67,19 @@ public class Product {
         this.category = category;
     }
 
-    public double getBuyingPrice() {
+    public Money getBuyingPrice() {
         return buyingPrice;
     }
 
-    public void setBuyingPrice(double buyingPrice) {
+    public void setBuyingPrice(Money buyingPrice) {
         this.buyingPrice = buyingPrice;
     }
 
-    public double getSellingPrice() {
+    public Money getSellingPrice() {
         return sellingPrice;
     }
 
-    public void setSellingPrice(double sellingPrice) {
+    public void setSellingPrice(Money sellingPrice) {
         this.sellingPrice = sellingPrice;
     }
 
@@ -116,13 +116,12 @@ public class Product {
     }
 
     // Business methods
-    public double getProfit() {
-        return sellingPrice - buyingPrice;
+    public Money getProfit() {
+        return sellingPrice.minus(buyingPrice);
     }
 
     public double getProfitMargin() {
-        if (sellingPrice == 0) return 0;
-        return (getProfit() / sellingPrice) * 100;
+        return getProfit().percentOf(sellingPrice);
     }
 
     public boolean isLowStock() {
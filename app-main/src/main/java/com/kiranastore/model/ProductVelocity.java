@@ -0,0 +1,70 @@
+package com.kiranastore.model;
+
+/**
+ * How much of one product sold over the last {@code windowDays} days, today included.
+ */
+public class ProductVelocity {
+    private final int productId;
+    private final String productName;
+    private final String category;
+    private final int windowDays;
+    private final long quantity;
+    private final Money revenue;
+    private final Money profit;
+    private final AbcClass abcClass;
+
+    public ProductVelocity(int productId, String productName, String category, int windowDays,
+                           long quantity, Money revenue, Money profit, AbcClass abcClass) {
+        this.productId = productId;
+        this.productName = productName;
+        this.category = category;
+        this.windowDays = windowDays;
+        this.quantity = quantity;
+        this.revenue = revenue;
+        this.profit = profit;
+        this.abcClass = abcClass;
+    }
+
+    // Getters
+    public int getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public int getWindowDays() {
+        return windowDays;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public Money getRevenue() {
+        return revenue;
+    }
+
+    public Money getProfit() {
+        return profit;
+    }
+
+    public double getProfitMargin() {
+        return profit.percentOf(revenue);
+    }
+
+    public AbcClass getAbcClass() {
+        return abcClass;
+    }
+
+    @Override
+    public String toString() {
+        return productName + (abcClass != null ? " (" + abcClass + ")" : "") + " - " + quantity + " units, Revenue: Rs." + revenue +
+               ", Profit: Rs." + profit + " in " + windowDays + " days";
+    }
+}
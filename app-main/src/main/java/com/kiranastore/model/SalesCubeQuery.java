@@ -0,0 +1,181 @@
+package com.kiranastore.model;
+
+import java.time.LocalDate;
+
+/**
+ * A slice of the sales cube: a date range, optional fixed members for the category,
+ * payment method and hour dimensions, and the dimension to group the result by.
+ * Immutable; {@link #drillDown} and the with* methods return a narrowed copy, so a
+ * report can roll up again by going back to an earlier query.
+ */
+public class SalesCubeQuery {
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final SalesDimension groupBy;
+    private final TimeBucket bucket;
+    private final String category;
+    private final String paymentMethod;
+    private final Integer hour;
+
+    private SalesCubeQuery(LocalDate startDate, LocalDate endDate, SalesDimension groupBy, TimeBucket bucket,
+                           String category, String paymentMethod, Integer hour) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.groupBy = groupBy;
+        this.bucket = bucket;
+        this.category = category;
+        this.paymentMethod = paymentMethod;
+        this.hour = hour;
+    }
+
+    /**
+     * Daily totals from startDate to endDate, both inclusive.
+     */
+    public static SalesCubeQuery between(LocalDate startDate, LocalDate endDate) {
+        return new SalesCubeQuery(startDate, endDate, SalesDimension.DATE, TimeBucket.DAY, null, null, null);
+    }
+
+    /**
+     * @param groupBy the dimension to group by, or null for a single total
+     */
+    public SalesCubeQuery groupedBy(SalesDimension groupBy) {
+        return new SalesCubeQuery(startDate, endDate, groupBy, bucket, category, paymentMethod, hour);
+    }
+
+    /**
+     * Buckets used when grouping by date.
+     */
+    public SalesCubeQuery inBuckets(TimeBucket bucket) {
+        return new SalesCubeQuery(startDate, endDate, groupBy, bucket, category, paymentMethod, hour);
+    }
+
+    public SalesCubeQuery withDates(LocalDate startDate, LocalDate endDate) {
+        return new SalesCubeQuery(startDate, endDate, groupBy, bucket, category, paymentMethod, hour);
+    }
+
+    public SalesCubeQuery withCategory(String category) {
+        return new SalesCubeQuery(startDate, endDate, groupBy, bucket, category, paymentMethod, hour);
+    }
+
+    public SalesCubeQuery withPaymentMethod(String paymentMethod) {
+        return new SalesCubeQuery(startDate, endDate, groupBy, bucket, category, paymentMethod, hour);
+    }
+
+    public SalesCubeQuery withHour(Integer hour) {
+        return new SalesCubeQuery(startDate, endDate, groupBy, bucket, category, paymentMethod, hour);
+    }
+
+    public boolean canDrillDown() {
+        if (groupBy == SalesDimension.DATE) {
+            return bucket != TimeBucket.DAY || nextOpenDimension(null) != null;
+        }
+        return groupBy != null && nextOpenDimension(groupBy) != null;
+    }
+
+    /**
+     * Narrows to one member of the grouped dimension and groups by the next dimension
+     * that is not yet fixed. A week or month narrows to its days; a single day moves on
+     * to category, then payment method, then hour.
+     *
+     * @param member a member as returned in {@link SalesCubeRow#getMember()}
+     */
+    public SalesCubeQuery drillDown(String member) {
+        if (!canDrillDown()) {
+            throw new IllegalStateException("Cannot drill down from " + this);
+        }
+        switch (groupBy) {
+            case DATE:
+                LocalDate start = LocalDate.parse(member);
+                if (bucket != TimeBucket.DAY) {
+                    LocalDate end = bucket.next(start).minusDays(1);
+                    return new SalesCubeQuery(start.isBefore(startDate) ? startDate : start,
+                        end.isAfter(endDate) ? endDate : end,
+                        SalesDimension.DATE, TimeBucket.DAY, category, paymentMethod, hour);
+                }
+                return withDates(start, start).groupedBy(nextOpenDimension(null));
+            case CATEGORY:
+                return withCategory(member).groupedBy(nextOpenDimension(groupBy));
+            case PAYMENT_METHOD:
+                return withPaymentMethod(member).groupedBy(nextOpenDimension(groupBy));
+            default:
+                return withHour(Integer.valueOf(member)).groupedBy(nextOpenDimension(groupBy));
+        }
+    }
+
+    private SalesDimension nextOpenDimension(SalesDimension fixing) {
+        if (category == null && fixing != SalesDimension.CATEGORY) {
+            return SalesDimension.CATEGORY;
+        }
+        if (paymentMethod == null && fixing != SalesDimension.PAYMENT_METHOD) {
+            return SalesDimension.PAYMENT_METHOD;
+        }
+        if (hour == null && fixing != SalesDimension.HOUR) {
+            return SalesDimension.HOUR;
+        }
+        return null;
+    }
+
+    // Getters
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    /**
+     * @return the dimension to group by, or null for a single total
+     */
+    public SalesDimension getGroupBy() {
+        return groupBy;
+    }
+
+    public TimeBucket getBucket() {
+        return bucket;
+    }
+
+    /**
+     * @return the fixed category, or null for all
+     */
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * @return the fixed payment method, or null for all
+     */
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    /**
+     * @return the fixed hour of day, or null for all
+     */
+    public Integer getHour() {
+        return hour;
+    }
+
+    /**
+     * The slice as a breadcrumb, for example "2026-01-01 to 2026-01-31 > Dairy > UPI".
+     */
+    public String getDescription() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(startDate.equals(endDate) ? startDate.toString() : startDate + " to " + endDate);
+        if (category != null) {
+            sb.append(" > ").append(category.isEmpty() ? "(none)" : category);
+        }
+        if (paymentMethod != null) {
+            sb.append(" > ").append(paymentMethod);
+        }
+        if (hour != null) {
+            sb.append(" > ").append(String.format("%02d:00-%02d:00", hour, hour + 1));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getDescription() + (groupBy != null ? " by " + groupBy.getDisplayName() : "");
+    }
+}
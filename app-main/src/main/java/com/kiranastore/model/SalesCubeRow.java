@@ -0,0 +1,71 @@
+package com.kiranastore.model;
+
+/**
+ * Totals for one member of the dimension a {@link SalesCubeQuery} is grouped by.
+ * Date members are bucket start dates in ISO format and hour members are 0-23.
+ */
+public class SalesCubeRow {
+    private final SalesDimension dimension;
+    private final String member;
+    private final SalesTotals totals;
+
+    public SalesCubeRow(SalesDimension dimension, String member, SalesTotals totals) {
+        this.dimension = dimension;
+        this.member = member;
+        this.totals = totals;
+    }
+
+    // Getters
+    public SalesDimension getDimension() {
+        return dimension;
+    }
+
+    public String getMember() {
+        return member;
+    }
+
+    public SalesTotals getTotals() {
+        return totals;
+    }
+
+    public Money getSales() {
+        return totals.getSales();
+    }
+
+    public Money getRevenue() {
+        return totals.getRevenue();
+    }
+
+    public Money getProfit() {
+        return totals.getProfit();
+    }
+
+    public long getQuantity() {
+        return totals.getQuantity();
+    }
+
+    public int getTransactions() {
+        return totals.getTransactions();
+    }
+
+    /**
+     * The member as shown in reports, for example "09:00-10:00" for an hour.
+     */
+    public String getLabel() {
+        if (dimension == null) {
+            return "All";
+        }
+        switch (dimension) {
+            case HOUR:
+                int hour = Integer.parseInt(member);
+                return String.format("%02d:00-%02d:00", hour, hour + 1);
+            default:
+                return member.isEmpty() ? "(none)" : member;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getLabel() + " - " + totals;
+    }
+}
@@ -0,0 +1,26 @@
+package com.kiranastore.model;
+
+/**
+ * A dimension of the sales cube that totals can be grouped by or fixed to one member.
+ */
+public enum SalesDimension {
+    DATE("Date"),
+    CATEGORY("Category"),
+    PAYMENT_METHOD("Payment Method"),
+    HOUR("Hour of Day");
+
+    private final String displayName;
+
+    SalesDimension(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,94 @@
+package com.kiranastore.model;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Which invoice lines an analytics query covers: a date range plus optional payment
+ * method, product and hour-of-day restrictions. Immutable; the with* methods return
+ * a narrowed copy.
+ */
+public class SalesFilter {
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final String paymentMethod;
+    private final Set<Integer> productIds;
+    private final int fromHour;
+    private final int toHourExclusive;
+
+    private SalesFilter(LocalDate startDate, LocalDate endDate, String paymentMethod,
+                        Set<Integer> productIds, int fromHour, int toHourExclusive) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.paymentMethod = paymentMethod;
+        this.productIds = productIds;
+        this.fromHour = fromHour;
+        this.toHourExclusive = toHourExclusive;
+    }
+
+    /**
+     * Every line from startDate to endDate, both inclusive.
+     */
+    public static SalesFilter between(LocalDate startDate, LocalDate endDate) {
+        return new SalesFilter(startDate, endDate, null, null, 0, 24);
+    }
+
+    public SalesFilter withPaymentMethod(String paymentMethod) {
+        return new SalesFilter(startDate, endDate, paymentMethod, productIds, fromHour, toHourExclusive);
+    }
+
+    public SalesFilter withProducts(Set<Integer> productIds) {
+        return new SalesFilter(startDate, endDate, paymentMethod,
+            Collections.unmodifiableSet(productIds), fromHour, toHourExclusive);
+    }
+
+    /**
+     * Only invoices raised from fromHour:00 up to, but not including, toHourExclusive:00.
+     */
+    public SalesFilter withHours(int fromHour, int toHourExclusive) {
+        if (fromHour < 0 || toHourExclusive > 24 || fromHour >= toHourExclusive) {
+            throw new IllegalArgumentException("Invalid hour range " + fromHour + "-" + toHourExclusive);
+        }
+        return new SalesFilter(startDate, endDate, paymentMethod, productIds, fromHour, toHourExclusive);
+    }
+
+    // Getters
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    /**
+     * @return the payment method, or null for all
+     */
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    /**
+     * @return the product IDs, or null for all products
+     */
+    public Set<Integer> getProductIds() {
+        return productIds;
+    }
+
+    public int getFromHour() {
+        return fromHour;
+    }
+
+    public int getToHourExclusive() {
+        return toHourExclusive;
+    }
+
+    @Override
+    public String toString() {
+        return startDate + " to " + endDate +
+               (paymentMethod != null ? ", " + paymentMethod : "") +
+               (productIds != null ? ", " + productIds.size() + " products" : "") +
+               (fromHour > 0 || toHourExclusive < 24 ? ", " + fromHour + ":00-" + toHourExclusive + ":00" : "");
+    }
+}
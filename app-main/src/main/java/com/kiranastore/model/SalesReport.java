@@ -6,8 +6,8 @@ import java.time.LocalDateTime;
 public class SalesReport {
     private int id;
     private LocalDate saleDate;
-    private double totalSales;
-    private double totalProfit;
+    private Money totalSales = Money.ZERO;
+    private Money totalProfit = Money.ZERO;
     private int totalTransactions;
     private LocalDateTime createdAt;
 
@@ -16,7 +16,7 @@ public class SalesReport {
     }
 
     // Constructor with all fields
-    public SalesReport(int id, LocalDate saleDate, double totalSales, double totalProfit,
+    public SalesReport(int id, LocalDate saleDate, Money totalSales, Money totalProfit,
                        int totalTransactions, LocalDateTime createdAt) {
         this.id = id;
         this.saleDate = saleDate;
@@ -43,19 +43,19 @@ public class SalesReport {
         this.saleDate = saleDate;
     }
 
-    public double getTotalSales() {
+    public Money getTotalSales() {
         return totalSales;
     }
 
-    public void setTotalSales(double totalSales) {
+    public void setTotalSales(Money totalSales) {
         this.totalSales = totalSales;
     }
 
-    public double getTotalProfit() {
+    public Money getTotalProfit() {
         return totalProfit;
     }
 
-    public void setTotalProfit(double totalProfit) {
+    public void setTotalProfit(Money totalProfit) {
         this.totalProfit = totalProfit;
     }
 
@@ -77,18 +77,16 @@ public class SalesReport {
 
     // Business methods
     public double getProfitMargin() {
-        if (totalSales == 0) return 0;
-        return (totalProfit / totalSales) * 100;
+        return totalProfit.percentOf(totalSales);
     }
 
-    public double getAverageTransactionValue() {
-        if (totalTransactions == 0) return 0;
-        return totalSales / totalTransactions;
+    public Money getAverageTransactionValue() {
+        return totalSales.dividedBy(totalTransactions);
     }
 
     @Override
     public String toString() {
-        return saleDate + " - Sales: Rs." + String.format("%.2f", totalSales);
+        return saleDate + " - Sales: Rs." + totalSales;
     }
 
     @Override
@@ -0,0 +1,59 @@
+package com.kiranastore.model;
+
+/**
+ * Totals over the invoice lines matched by a {@link SalesFilter}.
+ *
+ * Revenue and profit come from the matched lines only and exclude tax. Sales is the
+ * full amount, tax included, of every invoice with at least one matched line, so it
+ * equals the invoice totals when no product filter is applied.
+ */
+public class SalesTotals {
+    private final Money sales;
+    private final Money revenue;
+    private final Money profit;
+    private final long quantity;
+    private final int transactions;
+
+    public SalesTotals(Money sales, Money revenue, Money profit, long quantity, int transactions) {
+        this.sales = sales;
+        this.revenue = revenue;
+        this.profit = profit;
+        this.quantity = quantity;
+        this.transactions = transactions;
+    }
+
+    // Getters
+    public Money getSales() {
+        return sales;
+    }
+
+    public Money getRevenue() {
+        return revenue;
+    }
+
+    public Money getProfit() {
+        return profit;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public int getTransactions() {
+        return transactions;
+    }
+
+    public double getProfitMargin() {
+        return profit.percentOf(revenue);
+    }
+
+    public Money getAverageTransactionValue() {
+        return sales.dividedBy(transactions);
+    }
+
+    @Override
+    public String toString() {
+        return transactions + " invoices, " + quantity + " units - Sales: Rs." + sales +
+               ", Profit: Rs." + profit;
+    }
+}
@@ -0,0 +1,25 @@
+package com.kiranastore.model;
+
+/**
+ * What products are ranked by in a best-seller list.
+ */
+public enum VelocityMetric {
+    QUANTITY("Units Sold"),
+    REVENUE("Revenue"),
+    PROFIT("Profit");
+
+    private final String displayName;
+
+    VelocityMetric(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
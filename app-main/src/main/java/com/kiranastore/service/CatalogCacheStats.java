@@ -0,0 +1,43 @@
+package com.kiranastore.service;
+
+public class CatalogCacheStats {
+    private final long hits;
+    private final long misses;
+    private final long loads;
+    private final int size;
+
+    public CatalogCacheStats(long hits, long misses, long loads, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.loads = loads;
+        this.size = size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    // Number of full catalog loads from the database
+    public long getLoads() {
+        return loads;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "size=" + size + ", hits=" + hits + ", misses=" + misses + ", loads=" + loads +
+               ", hitRatio=" + String.format("%.3f", getHitRatio());
+    }
+}
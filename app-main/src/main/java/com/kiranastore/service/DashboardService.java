@@ -0,0 +1,119 @@
+package com.kiranastore.service;
+
+import com.kiranastore.config.AppConfig;
+import com.kiranastore.model.DailySales;
+import com.kiranastore.model.DashboardSnapshot;
+import com.kiranastore.model.InventorySummary;
+import com.kiranastore.model.InvoiceAggregate;
+import com.kiranastore.model.Product;
+import com.kiranastore.model.TimeBucket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Builds the dashboard from a fixed handful of aggregate queries and keeps the result.
+ * A snapshot older than dashboard.maxStalenessSeconds, or one marked stale by a catalog
+ * or sales change, is still served immediately while a fresh one is built in the background.
+ */
+public class DashboardService {
+    private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
+    private static final long DEFAULT_MAX_STALENESS_SECONDS = 30;
+    private static final int LOW_STOCK_LIMIT = 5;
+    private static final int DEFAULT_TREND_DAYS = 7;
+
+    // Shared by all service instances, like the inventory summary in ProductService
+    private static volatile DashboardSnapshot snapshot;
+    private static volatile long snapshotTime;
+    private static volatile boolean stale;
+    private static CompletableFuture<DashboardSnapshot> refreshing; // guarded by DashboardService.class
+
+    private final ProductService productService = new ProductService();
+    private final InvoiceService invoiceService = new InvoiceService();
+    private final SalesReportService salesReportService = new SalesReportService();
+    private final long maxStalenessMs =
+        AppConfig.get().getLong("dashboard.maxStalenessSeconds", DEFAULT_MAX_STALENESS_SECONDS) * 1000;
+    private final int trendDays = Math.max(1, AppConfig.get().getInt("dashboard.trendDays", DEFAULT_TREND_DAYS));
+
+    /**
+     * Completes immediately when a snapshot exists; otherwise once the first one is built.
+     */
+    public CompletableFuture<DashboardSnapshot> getSnapshotAsync() {
+        DashboardSnapshot current = snapshot;
+        if (current == null) {
+            return refreshAsync();
+        }
+        if (stale || System.currentTimeMillis() - snapshotTime >= maxStalenessMs) {
+            refreshAsync();
+        }
+        return CompletableFuture.completedFuture(current);
+    }
+
+    public DashboardSnapshot getSnapshot() {
+        return getSnapshotAsync().join();
+    }
+
+    /**
+     * Starts a rebuild unless one is already running. Cancelling the returned future
+     * does not stop the rebuild, which other callers may be waiting on.
+     */
+    public CompletableFuture<DashboardSnapshot> refreshAsync() {
+        synchronized (DashboardService.class) {
+            if (refreshing == null) {
+                stale = false;
+                CompletableFuture<DashboardSnapshot> build = ServiceExecutor.supplyDetached(this::buildSnapshot);
+                refreshing = build;
+                build.whenComplete((built, error) -> {
+                    synchronized (DashboardService.class) {
+                        refreshing = null;
+                    }
+                    if (error != null) {
+                        logger.error("Error building dashboard snapshot", error);
+                    }
+                });
+            }
+            return refreshing.copy();
+        }
+    }
+
+    /**
+     * The rebuild in progress, or null if none is running.
+     */
+    public CompletableFuture<DashboardSnapshot> getPendingRefresh() {
+        synchronized (DashboardService.class) {
+            return refreshing != null ? refreshing.copy() : null;
+        }
+    }
+
+    /**
+     * Called when sales or stock change; the next request triggers a background rebuild.
+     */
+    public static void markStale() {
+        stale = true;
+    }
+
+    private DashboardSnapshot buildSnapshot() {
+        LocalDate today = LocalDate.now();
+        InventorySummary inventory = productService.getInventorySummary();
+        List<Product> lowStock = productService.getLowStockProducts();
+        // From the year rollups: a sale marks the dashboard stale, so this runs after every bill
+        InvoiceAggregate allTime = salesReportService.getAllTimeTotals();
+        List<DailySales> trend = invoiceService.getSalesSeries(today.minusDays(trendDays - 1), today, TimeBucket.DAY);
+
+        DashboardSnapshot built = new DashboardSnapshot(
+            inventory,
+            lowStock.subList(0, Math.min(LOW_STOCK_LIMIT, lowStock.size())),
+            allTime,
+            trend,
+            LocalDateTime.now()
+        );
+        snapshot = built;
+        snapshotTime = System.currentTimeMillis();
+        logger.debug("Dashboard snapshot rebuilt: {}", built);
+        return built;
+    }
+}
@@ -0,0 +1,147 @@
+package com.kiranastore.service;
+
+import com.kiranastore.config.AppConfig;
+import com.kiranastore.dao.InvoiceDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.SecureRandom;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out short, increasing invoice numbers such as INV-00000042.
+ *
+ * Numbers come from the invoice_sequences row for this counter's prefix, reserved a
+ * block at a time (hi/lo), and are then taken from memory with a single atomic
+ * increment. Numbers left in a block when the application stops are skipped, so the
+ * sequence can have gaps but never repeats. Give each counter its own prefix with
+ * billing.invoice.prefix to keep their sequences apart, or share one to interleave them.
+ *
+ * If no block can be reserved because the database is unreachable, numbers fall back
+ * to PREFIX-T, the epoch milliseconds and this counter's id, such as INV-T1760000000000-C2.
+ * They cannot clash with sequence numbers and still sort after them. The counter id
+ * keeps two counters offline on a shared prefix from issuing the same number, which the
+ * journal would take for an invoice already posted. Set it with billing.invoice.counterId
+ * (letters and digits, up to 12); otherwise each run picks a random one.
+ */
+class InvoiceNumberAllocator {
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceNumberAllocator.class);
+    private static final InvoiceNumberAllocator INSTANCE = new InvoiceNumberAllocator();
+    private static final int DEFAULT_BLOCK_SIZE = 20;
+    private static final long RESERVE_RETRY_MS = 30_000;
+    // Zero padding keeps string order equal to numeric order in the invoice_number index
+    private static final String NUMBER_FORMAT = "%s-%08d";
+    // Keeps PREFIX-T<millis>-<id> within the 50 characters of invoice_number
+    private static final int MAX_COUNTER_ID_LENGTH = 12;
+    private static final int RANDOM_COUNTER_ID_LENGTH = 6;
+
+    private final InvoiceDAO invoiceDAO = new InvoiceDAO();
+    private final String prefix = AppConfig.get().getString("billing.invoice.prefix", "INV");
+    private final int blockSize = Math.max(1, AppConfig.get().getInt("billing.invoice.blockSize", DEFAULT_BLOCK_SIZE));
+    private final String counterId = counterId();
+    private final AtomicLong lastFallback = new AtomicLong();
+    private volatile Block block = new Block(1, 0); // empty until the first reservation
+    private boolean offline;       // guarded by this
+    private boolean retrying;      // guarded by this
+    private long retryReserveAt;   // guarded by this
+
+    static InvoiceNumberAllocator getInstance() {
+        return INSTANCE;
+    }
+
+    String next() {
+        while (true) {
+            Block current = block;
+            long value = current.next.getAndIncrement();
+            if (value <= current.last) {
+                return String.format(NUMBER_FORMAT, prefix, value);
+            }
+            synchronized (this) {
+                if (block == current) {
+                    if (offline) {
+                        retryInBackground();
+                        return fallbackNumber();
+                    }
+                    Block reserved = reserve();
+                    if (reserved == null) {
+                        offline = true;
+                        return fallbackNumber();
+                    }
+                    block = reserved;
+                }
+            }
+        }
+    }
+
+    /**
+     * While the database is down, reservations are retried off the billing thread so
+     * a bill never waits for a connection timeout more than once.
+     */
+    private void retryInBackground() {
+        if (retrying || System.currentTimeMillis() < retryReserveAt) {
+            return;
+        }
+        retrying = true;
+        ServiceExecutor.supplyDetached(() -> {
+            Block reserved = reserve();
+            synchronized (this) {
+                retrying = false;
+                if (reserved != null) {
+                    block = reserved;
+                    offline = false;
+                    logger.info("Invoice numbers for {} are reserved from the database again", prefix);
+                }
+            }
+            return reserved;
+        });
+    }
+
+    private Block reserve() {
+        try {
+            long last = invoiceDAO.reserveInvoiceNumbers(prefix, blockSize);
+            logger.debug("Reserved invoice numbers {} to {} for {}", last - blockSize + 1, last, prefix);
+            return new Block(last - blockSize + 1, last);
+        } catch (SQLException e) {
+            logger.warn("Could not reserve invoice numbers for {}; using time-based numbers: {}", prefix, e.getMessage());
+            synchronized (this) {
+                retryReserveAt = System.currentTimeMillis() + RESERVE_RETRY_MS;
+            }
+            return null;
+        }
+    }
+
+    private String fallbackNumber() {
+        long now = System.currentTimeMillis();
+        long value = lastFallback.updateAndGet(last -> Math.max(last + 1, now));
+        return prefix + "-T" + value + "-" + counterId;
+    }
+
+    private static String counterId() {
+        String configured = AppConfig.get().getString("billing.invoice.counterId", "").trim();
+        if (configured.matches("[A-Za-z0-9]{1," + MAX_COUNTER_ID_LENGTH + "}")) {
+            return configured.toUpperCase(Locale.ROOT);
+        }
+        if (!configured.isEmpty()) {
+            logger.warn("Ignoring billing.invoice.counterId '{}': use up to {} letters and digits",
+                configured, MAX_COUNTER_ID_LENGTH);
+        }
+        StringBuilder id = new StringBuilder();
+        SecureRandom random = new SecureRandom();
+        for (int i = 0; i < RANDOM_COUNTER_ID_LENGTH; i++) {
+            id.append(Character.toUpperCase(Character.forDigit(random.nextInt(36), 36)));
+        }
+        return id.toString();
+    }
+
+    private static class Block {
+        private final AtomicLong next;
+        private final long last;
+
+        Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+    }
+}
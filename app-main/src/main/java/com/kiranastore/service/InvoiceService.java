@@ -1,16 +1,26 @@
 package com.kiranastore.service;
 
+import com.kiranastore.dao.InsufficientStockException;
 import com.kiranastore.dao.InvoiceDAO;
+import com.kiranastore.model.DailySales;
 import com.kiranastore.model.Invoice;
+import com.kiranastore.model.InvoiceAggregate;
 import com.kiranastore.model.InvoiceItem;
-import com.kiranastore.model.Product;
+import com.kiranastore.model.Money;
+import com.kiranastore.model.SalesFilter;
+import com.kiranastore.model.TimeBucket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 
 public class InvoiceService {
     private static final Logger logger = LoggerFactory.getLogger(InvoiceService.class);
@@ -22,7 +32,49 @@ public class InvoiceService {
             logger.warn("Cannot create invoice with no items");
             return -1;
         }
+        return commit(buildInvoice(customerName, customerPhone, items, paymentMethod));
+    }
+
+    /**
+     * Records a sale through the offline invoice journal: the invoice is on local disk
+     * when this returns and is posted to the database in the background, so billing
+     * keeps working while the database is slow or down. Stock is checked and taken off
+     * the cached catalog in one step, so concurrent sales cannot both take the last
+     * units. Falls back to a direct commit if the journal is not available.
+     *
+     * @return the invoice number, or null if the sale was rejected or could not be saved
+     */
+    public String recordSale(String customerName, String customerPhone, List<InvoiceItem> items, String paymentMethod) {
+        if (items == null || items.isEmpty()) {
+            logger.warn("Cannot create invoice with no items");
+            return null;
+        }
+        Invoice invoice = buildInvoice(customerName, customerPhone, items, paymentMethod);
+
+        OfflineInvoiceQueue queue = OfflineInvoiceQueue.get();
+        if (queue == null) {
+            return commit(invoice) != -1 ? invoice.getInvoiceNumber() : null;
+        }
 
+        int shortProductId = productService.reserveStock(items);
+        if (shortProductId != 0) {
+            logger.warn("Invoice {} rejected: insufficient stock for product {}",
+                invoice.getInvoiceNumber(), shortProductId);
+            return null;
+        }
+
+        try {
+            queue.submit(invoice);
+        } catch (IOException e) {
+            productService.releaseStock(items);
+            logger.error("Could not journal invoice {}", invoice.getInvoiceNumber(), e);
+            return null;
+        }
+        logger.info("Invoice {} recorded", invoice.getInvoiceNumber());
+        return invoice.getInvoiceNumber();
+    }
+
+    private Invoice buildInvoice(String customerName, String customerPhone, List<InvoiceItem> items, String paymentMethod) {
         Invoice invoice = new Invoice();
         invoice.setInvoiceNumber(generateInvoiceNumber());
         invoice.setCustomerName(customerName != null ? customerName : "Walk-in Customer");
@@ -31,14 +83,36 @@ public class InvoiceService {
         invoice.setPaymentMethod(paymentMethod);
         invoice.setItems(items);
         calculateInvoiceTotals(invoice);
+        return invoice;
+    }
 
-        int invoiceId = invoiceDAO.addInvoice(invoice);
-
-        if (invoiceId != -1) {
-            updateProductStock(items);
-            logger.info("Invoice created successfully with ID: {}", invoiceId);
+    private int commit(Invoice invoice) {
+        long loadsBefore = productService.getCatalogLoadCount();
+        int invoiceId;
+        try {
+            // Outside the stock lock, like journal posts; only the cache update takes it
+            invoiceId = invoiceDAO.commitInvoice(invoice);
+        } catch (InsufficientStockException e) {
+            logger.warn("Invoice {} rejected: {}", invoice.getInvoiceNumber(), e.getMessage());
+            return -1;
+        } catch (SQLException e) {
+            logger.error("Error creating invoice", e);
+            return -1;
         }
-
+        boolean reload = productService.writeStock(() -> {
+            // A load since the commit may already have the decrements; reading again settles it
+            if (productService.getCatalogLoadCount() != loadsBefore) {
+                return true;
+            }
+            productService.applyCommittedSale(invoice.getItems());
+            return false;
+        });
+        if (reload) {
+            productService.reloadCatalog();
+            ProductService.invalidateInventorySummary();
+        }
+        SalesColumnStore.getInstance().append(invoice);
+        logger.info("Invoice created successfully with ID: {}", invoiceId);
         return invoiceId;
     }
 
@@ -54,79 +128,147 @@ public class InvoiceService {
         return invoiceDAO.getInvoicesByDate(startDate, endDate);
     }
 
+    public List<Invoice> getAllInvoiceHeaders() {
+        return invoiceDAO.getAllInvoiceHeaders();
+    }
+
+    public List<Invoice> getInvoiceHeadersByDate(LocalDate startDate, LocalDate endDate) {
+        return invoiceDAO.getInvoiceHeadersByDate(startDate, endDate);
+    }
+
     public List<Invoice> getDailySalesInvoices(LocalDate date) {
         return getInvoicesByDate(date, date);
     }
 
-    public double getDailySales(LocalDate date) {
-        return getDailySalesInvoices(date).stream()
-            .mapToDouble(Invoice::getTotalAmount)
-            .sum();
+    public Money getDailySales(LocalDate date) {
+        return getInvoiceAggregate(date, date, null).getTotalAmount();
     }
 
-    public double getDailyProfit(LocalDate date) {
-        List<Invoice> invoices = getDailySalesInvoices(date);
-        double totalProfit = 0;
+    public Money getDailyProfit(LocalDate date) {
+        return getProfit(date, date);
+    }
 
-        for (Invoice invoice : invoices) {
-            for (InvoiceItem item : invoice.getItems()) {
-                Product product = productService.getProductById(item.getProductId());
-                if (product != null) {
-                    double profitPerUnit = product.getSellingPrice() - product.getBuyingPrice();
-                    totalProfit += profitPerUnit * item.getQuantity();
-                }
-            }
+    public Money getProfit(LocalDate startDate, LocalDate endDate) {
+        return invoiceDAO.getGrossProfit(startDate, endDate);
+    }
+
+    /**
+     * Per-day totals for a date range; days without sales are omitted. Served from the
+     * sales column store once it is loaded, otherwise from grouped queries. For display
+     * only; anything persisting totals should read {@link InvoiceDAO#getDailyTotals}.
+     */
+    public List<DailySales> getDailyTotals(LocalDate startDate, LocalDate endDate) {
+        SalesColumnStore store = SalesColumnStore.getInstance();
+        if (store.isLoaded()) {
+            return store.aggregateByDay(SalesFilter.between(startDate, endDate));
         }
+        return invoiceDAO.getDailyTotals(startDate, endDate);
+    }
 
-        return totalProfit;
+    /**
+     * Sales, profit and transactions for [startDate, endDate] in day, week or month buckets,
+     * oldest first, with a zero entry for every bucket without sales. Each entry is dated
+     * by its bucket's first day; buckets cut by the range only count days inside it.
+     * Costs one grouped query whatever the length of the range.
+     */
+    public List<DailySales> getSalesSeries(LocalDate startDate, LocalDate endDate, TimeBucket bucket) {
+        Map<LocalDate, DailySales> byBucket = new TreeMap<>();
+        for (LocalDate start = bucket.startOf(startDate); !start.isAfter(endDate); start = bucket.next(start)) {
+            byBucket.put(start, new DailySales(start, Money.ZERO, Money.ZERO, 0));
+        }
+        for (DailySales day : getDailyTotals(startDate, endDate)) {
+            byBucket.merge(bucket.startOf(day.getDate()), day, (total, add) -> new DailySales(
+                total.getDate(),
+                total.getTotalSales().plus(add.getTotalSales()),
+                total.getTotalProfit().plus(add.getTotalProfit()),
+                total.getTotalTransactions() + add.getTotalTransactions()
+            ));
+        }
+        return new ArrayList<>(byBucket.values());
     }
 
     public int getDailyTransactionCount(LocalDate date) {
-        return getDailySalesInvoices(date).size();
+        return getInvoiceAggregate(date, date, null).getInvoiceCount();
     }
 
     private void calculateInvoiceTotals(Invoice invoice) {
-        double subtotal = invoice.getItems().stream()
-            .mapToDouble(InvoiceItem::getLineTotal)
-            .sum();
+        Money subtotal = Money.sum(invoice.getItems(), InvoiceItem::getLineTotal);
 
         invoice.setSubtotal(subtotal);
-        invoice.setTax(subtotal * 0.05);  // 5% tax
-        invoice.setTotalAmount(subtotal + invoice.getTax());
+        invoice.setTax(subtotal.percent(5));  // 5% tax
+        invoice.setTotalAmount(subtotal.plus(invoice.getTax()));
         invoice.setTotalItems(invoice.getItems().stream()
             .mapToInt(InvoiceItem::getQuantity)
             .sum());
     }
 
-    private void updateProductStock(List<InvoiceItem> items) {
-        for (InvoiceItem item : items) {
-            Product product = productService.getProductById(item.getProductId());
-            if (product != null) {
-                int newQuantity = product.getQuantityInStock() - item.getQuantity();
-                productService.updateStock(item.getProductId(), newQuantity);
-            }
-        }
+    private String generateInvoiceNumber() {
+        return InvoiceNumberAllocator.getInstance().next();
     }
 
-    private String generateInvoiceNumber() {
-        long timestamp = System.currentTimeMillis();
-        String uuid = UUID.randomUUID().toString().substring(0, 5).toUpperCase();
-        return "INV-" + timestamp + "-" + uuid;
+    /**
+     * Total, count and average invoice value in one query. Pass null for any
+     * filter to leave it unbounded.
+     */
+    public InvoiceAggregate getInvoiceAggregate(LocalDate startDate, LocalDate endDate, String paymentMethod) {
+        return invoiceDAO.getInvoiceAggregate(startDate, endDate, paymentMethod);
     }
 
-    public double getTotalRevenue() {
-        return getAllInvoices().stream()
-            .mapToDouble(Invoice::getTotalAmount)
-            .sum();
+    public Money getTotalRevenue() {
+        return getInvoiceAggregate(null, null, null).getTotalAmount();
     }
 
     public int getTotalInvoiceCount() {
-        return getAllInvoices().size();
+        return getInvoiceAggregate(null, null, null).getInvoiceCount();
+    }
+
+    public Money getAverageInvoiceValue() {
+        return getInvoiceAggregate(null, null, null).getAverageAmount();
+    }
+
+    // Async variants - run on virtual threads via ServiceExecutor
+
+    /**
+     * Commits the invoice off the calling thread. Cancelling the future does not stop
+     * the commit; it only discards the resulting id.
+     */
+    public CompletableFuture<Integer> createInvoiceAsync(String customerName, String customerPhone,
+                                                         List<InvoiceItem> items, String paymentMethod) {
+        return ServiceExecutor.supplyDetached(() -> createInvoice(customerName, customerPhone, items, paymentMethod));
+    }
+
+    /**
+     * Records the sale off the calling thread; see {@link #recordSale}. Cancelling the
+     * future does not stop the sale being recorded.
+     */
+    public CompletableFuture<String> recordSaleAsync(String customerName, String customerPhone,
+                                                     List<InvoiceItem> items, String paymentMethod) {
+        return ServiceExecutor.supplyDetached(() -> recordSale(customerName, customerPhone, items, paymentMethod));
+    }
+
+    public CompletableFuture<List<Invoice>> getAllInvoiceHeadersAsync() {
+        return ServiceExecutor.supply(this::getAllInvoiceHeaders);
+    }
+
+    public CompletableFuture<List<Invoice>> getInvoiceHeadersByDateAsync(LocalDate startDate, LocalDate endDate) {
+        return ServiceExecutor.supply(() -> getInvoiceHeadersByDate(startDate, endDate));
+    }
+
+    public CompletableFuture<Money> getDailySalesAsync(LocalDate date) {
+        return ServiceExecutor.supply(() -> getDailySales(date));
+    }
+
+    public CompletableFuture<List<DailySales>> getDailyTotalsAsync(LocalDate startDate, LocalDate endDate) {
+        return ServiceExecutor.supply(() -> getDailyTotals(startDate, endDate));
+    }
+
+    public CompletableFuture<List<DailySales>> getSalesSeriesAsync(LocalDate startDate, LocalDate endDate,
+                                                                   TimeBucket bucket) {
+        return ServiceExecutor.supply(() -> getSalesSeries(startDate, endDate, bucket));
     }
 
-    public double getAverageInvoiceValue() {
-        List<Invoice> invoices = getAllInvoices();
-        if (invoices.isEmpty()) return 0;
-        return getTotalRevenue() / invoices.size();
+    public CompletableFuture<InvoiceAggregate> getInvoiceAggregateAsync(LocalDate startDate, LocalDate endDate,
+                                                                        String paymentMethod) {
+        return ServiceExecutor.supply(() -> getInvoiceAggregate(startDate, endDate, paymentMethod));
     }
 }
@@ -0,0 +1,262 @@
+package com.kiranastore.service;
+
+import com.kiranastore.config.AppConfig;
+import com.kiranastore.dao.InvoiceDAO;
+import com.kiranastore.journal.InvoiceJournal;
+import com.kiranastore.journal.JournalEntry;
+import com.kiranastore.model.Invoice;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Lets the counter keep billing when the database is slow or down. Sales are written to
+ * the local {@link InvoiceJournal} and a background thread posts them to the database in
+ * order, retrying with backoff while it is unreachable. Posting is idempotent on the
+ * invoice number, so an invoice replayed after a crash is not counted twice.
+ *
+ * An entry the database keeps rejecting for another reason (for example a product that
+ * was deleted) is moved to rejected-invoices.log after a few attempts so it does not
+ * hold up the ones behind it. Its stock is put back in the cached catalog and
+ * {@link RejectionListener}s are told, since the cashier was told it was saved.
+ *
+ * Stock was checked against the cached catalog at the counter, so a sale posted here
+ * is never refused for stock: if another counter sold the same units meanwhile, stock
+ * in the database goes below zero and a warning is logged. Such oversells are accepted.
+ */
+public final class OfflineInvoiceQueue {
+    private static final Logger logger = LoggerFactory.getLogger(OfflineInvoiceQueue.class);
+    private static final int DEFAULT_SEGMENT_BYTES = 8 * 1024 * 1024;
+    private static final long INITIAL_RETRY_MS = 500;
+    private static final long DEFAULT_MAX_RETRY_SECONDS = 30;
+    private static final int MAX_REJECTED_ATTEMPTS = 5;
+    private static final String REJECTED_FILE = "rejected-invoices.log";
+
+    private static OfflineInvoiceQueue instance; // guarded by OfflineInvoiceQueue.class
+    private static boolean openFailed;           // guarded by OfflineInvoiceQueue.class
+
+    private final InvoiceJournal journal;
+    private final Path directory;
+    private final InvoiceDAO invoiceDAO = new InvoiceDAO();
+    private final long maxRetryMs;
+    private final ProductService productService = new ProductService();
+    private final List<RejectionListener> rejectionListeners = new CopyOnWriteArrayList<>();
+    private final Object signal = new Object();
+    private final Thread worker;
+    private volatile boolean running = true;
+    private long settledThrough; // last entry whose cached stock was settled; replay thread only
+
+    private OfflineInvoiceQueue(InvoiceJournal journal, Path directory, long maxRetryMs) {
+        this.journal = journal;
+        this.directory = directory;
+        this.maxRetryMs = maxRetryMs;
+        this.worker = new Thread(this::replayLoop, "invoice-journal-replay");
+        this.worker.setDaemon(true);
+    }
+
+    /**
+     * The shared queue, opened and started on first use; null if the journal is switched
+     * off with billing.journal.enabled=false or cannot be opened.
+     */
+    public static synchronized OfflineInvoiceQueue get() {
+        if (instance == null && !openFailed) {
+            AppConfig config = AppConfig.get();
+            if (!config.getBoolean("billing.journal.enabled", true)) {
+                openFailed = true;
+                return null;
+            }
+            Path directory = Paths.get(config.getString("billing.journal.dir", "journal"));
+            try {
+                InvoiceJournal journal = InvoiceJournal.open(directory,
+                    config.getInt("billing.journal.segmentBytes", DEFAULT_SEGMENT_BYTES));
+                instance = new OfflineInvoiceQueue(journal, directory,
+                    config.getLong("billing.journal.maxRetrySeconds", DEFAULT_MAX_RETRY_SECONDS) * 1000);
+                // Left from the last run: sold, but not in the stock the catalog reads from the database
+                for (JournalEntry entry : journal.getPending()) {
+                    instance.productService.holdUnpostedStock(entry.getInvoice().getItems());
+                }
+                instance.worker.start();
+                logger.info("Invoice journal opened at {}", directory.toAbsolutePath());
+            } catch (IOException | RuntimeException e) {
+                openFailed = true;
+                logger.error("Could not open invoice journal at {}; invoices will be posted directly", directory, e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Stops the replay thread and closes the journal. Unposted invoices stay on disk
+     * and are posted after the next start.
+     */
+    public static synchronized void shutdown() {
+        if (instance == null) {
+            return;
+        }
+        instance.running = false;
+        instance.worker.interrupt();
+        try {
+            instance.worker.join(5_000);
+            instance.journal.close();
+            logger.info("Invoice journal closed with {} unposted invoice(s)", instance.journal.getPendingCount());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.error("Error closing invoice journal", e);
+        }
+        instance = null;
+    }
+
+    /**
+     * Durably records the invoice and wakes the replay thread.
+     */
+    public void submit(Invoice invoice) throws IOException {
+        long sequence = journal.append(invoice);
+        logger.debug("Invoice {} journaled as #{}", invoice.getInvoiceNumber(), sequence);
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+    }
+
+    public int getPendingCount() {
+        return journal.getPendingCount();
+    }
+
+    /**
+     * Registers a listener for invoices the database refused for good. It is called on
+     * the replay thread.
+     */
+    public void addRejectionListener(RejectionListener listener) {
+        rejectionListeners.add(listener);
+    }
+
+    private void replayLoop() {
+        long retryMs = INITIAL_RETRY_MS;
+        int rejectedAttempts = 0;
+        while (running) {
+            JournalEntry entry = journal.peekPending();
+            try {
+                if (entry == null) {
+                    synchronized (signal) {
+                        if (journal.peekPending() == null) {
+                            signal.wait();
+                        }
+                    }
+                    continue;
+                }
+
+                SQLException rejection = null;
+                try {
+                    long loadsBefore = productService.getCatalogLoadCount();
+                    // Outside the stock lock: this can wait seconds on the database, and
+                    // catalog edits, direct commits and loads all take that lock
+                    boolean posted = invoiceDAO.postJournaledInvoice(entry.getInvoice());
+                    boolean reload = productService.writeStock(() -> {
+                        // Once per entry: a retry after a failed acknowledge finds its own earlier post
+                        if (entry.getSequence() <= settledThrough) {
+                            return false;
+                        }
+                        settledThrough = entry.getSequence();
+                        if (!posted) {
+                            // Posted before a crash, so the stock read from the database already has it
+                            productService.releaseStock(entry.getInvoice().getItems());
+                            return false;
+                        }
+                        productService.settleReservedStock(entry.getInvoice().getItems());
+                        // A load since the post may have read the new stock and still taken the
+                        // sale off as unposted; read it again now that the sale is settled
+                        return productService.getCatalogLoadCount() != loadsBefore;
+                    });
+                    if (reload) {
+                        productService.reloadCatalog();
+                    }
+                } catch (SQLException e) {
+                    if (isTransient(e) || ++rejectedAttempts < MAX_REJECTED_ATTEMPTS) {
+                        logger.warn("Could not post journaled invoice {} ({} waiting); retrying in {} ms: {}",
+                            entry.getInvoice().getInvoiceNumber(), journal.getPendingCount(), retryMs, e.getMessage());
+                        Thread.sleep(retryMs);
+                        retryMs = Math.min(retryMs * 2, maxRetryMs);
+                        continue;
+                    }
+                    rejection = e;
+                }
+
+                if (rejection != null) {
+                    reject(entry, rejection);
+                    journal.acknowledge(entry);
+                    // The sale never reached the database, so the stock taken at the counter comes back
+                    productService.releaseStock(entry.getInvoice().getItems());
+                    notifyRejected(entry.getInvoice(), rejection);
+                } else {
+                    journal.acknowledge(entry);
+                    SalesColumnStore.getInstance().append(entry.getInvoice());
+                }
+                retryMs = INITIAL_RETRY_MS;
+                rejectedAttempts = 0;
+                // Stock and sales totals in the database just changed
+                ProductService.invalidateInventorySummary();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                logger.error("Invoice journal replay failed; retrying", e);
+                try {
+                    Thread.sleep(maxRetryMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void reject(JournalEntry entry, SQLException cause) throws IOException {
+        Invoice invoice = entry.getInvoice();
+        logger.error("Giving up on journaled invoice {} after {} attempts; moved to {}",
+            invoice.getInvoiceNumber(), MAX_REJECTED_ATTEMPTS, REJECTED_FILE, cause);
+        String line = entry + " " + invoice + " " + invoice.getItems() + " : " + cause.getMessage() + System.lineSeparator();
+        Files.writeString(directory.resolve(REJECTED_FILE), line, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private void notifyRejected(Invoice invoice, SQLException cause) {
+        for (RejectionListener listener : rejectionListeners) {
+            try {
+                listener.invoiceRejected(invoice, cause.getMessage());
+            } catch (RuntimeException e) {
+                logger.error("Rejection listener failed for invoice {}", invoice.getInvoiceNumber(), e);
+            }
+        }
+    }
+
+    /**
+     * Told about a journaled invoice that was given up on; see {@link #addRejectionListener}.
+     */
+    public interface RejectionListener {
+        void invoiceRejected(Invoice invoice, String reason);
+    }
+
+    /**
+     * Connection problems, timeouts and lock contention; worth retrying indefinitely.
+     */
+    private static boolean isTransient(SQLException e) {
+        String state = e.getSQLState();
+        String message = String.valueOf(e.getMessage());
+        return e instanceof SQLTransientException
+            || e instanceof SQLRecoverableException
+            || (state != null && state.startsWith("08"))
+            || message.contains("SQLITE_BUSY")
+            || message.contains("database is locked");
+    }
+}
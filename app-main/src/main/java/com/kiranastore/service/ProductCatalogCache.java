@@ -0,0 +1,427 @@
+package com.kiranastore.service;
+
+import com.kiranastore.dao.ProductDAO;
+import com.kiranastore.model.Product;
+
+import com.kiranastore.config.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory copy of the product catalog shared by all {@link ProductService} instances.
+ *
+ * Reads go through an immutable snapshot (id array, SKU hash index, category index)
+ * and never lock. Adding, replacing or removing a product publishes a new snapshot;
+ * stock changes update the cached product in place so every holder sees live stock.
+ * The whole catalog is reloaded periodically to pick up changes made by other counters;
+ * the reload runs on {@link ServiceExecutor} and the old snapshot is served meanwhile.
+ *
+ * Cached stock runs ahead of the database by the sales reserved at this counter but not
+ * yet posted from the invoice journal. Those units are tracked here and taken off every
+ * freshly loaded product. Database stock writes go through {@link #writeStock} so a
+ * reload never reads the database between a write and the matching cache update. Writes
+ * that can wait on the database for long, like journal posts, are made outside it and
+ * only the cache update runs under it, checked against {@link #getLoadCount}.
+ */
+class ProductCatalogCache {
+    private static final Logger logger = LoggerFactory.getLogger(ProductCatalogCache.class);
+    private static final ProductCatalogCache INSTANCE = new ProductCatalogCache();
+
+    private final long refreshIntervalMs = AppConfig.get().getLong("catalog.cache.refreshSeconds", 300) * 1000;
+    private final ProductDAO productDAO = new ProductDAO();
+    private final AtomicLong version = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private final AtomicBoolean reloadRequested = new AtomicBoolean();
+    // Taken before this cache's monitor, never after it
+    private final Object stockWrites = new Object();
+    // Product ID -> units reserved at this counter and not yet posted; guarded by this
+    private final Map<Integer, Integer> unposted = new HashMap<>();
+
+    private volatile Snapshot snapshot;
+    private volatile long loadedAt;
+
+    static ProductCatalogCache getInstance() {
+        return INSTANCE;
+    }
+
+    Product getById(int id) {
+        Product product = snapshot().getById(id);
+        if (product != null) {
+            hits.increment();
+            return product;
+        }
+        misses.increment();
+        // Possibly added by another counter since the catalog was loaded
+        product = productDAO.getProductById(id);
+        if (product != null) {
+            put(product);
+        }
+        return product;
+    }
+
+    Product getBySku(String sku) {
+        Product product = snapshot().bySku.get(sku);
+        if (product != null) {
+            hits.increment();
+            return product;
+        }
+        misses.increment();
+        product = productDAO.getProductBySku(sku);
+        if (product != null) {
+            put(product);
+        }
+        return product;
+    }
+
+    List<Product> getAll() {
+        return snapshot().byName;
+    }
+
+    List<Product> getByCategory(String category) {
+        return snapshot().byCategory.getOrDefault(category, Collections.emptyList());
+    }
+
+    List<String> getCategories() {
+        return snapshot().categories;
+    }
+
+    /**
+     * Search index for the current snapshot, built on first use. Stock changes keep the
+     * snapshot, so only catalog edits and reloads lead to a rebuild.
+     */
+    ProductSearchIndex getSearchIndex() {
+        return snapshot().searchIndex();
+    }
+
+    /**
+     * Monotonic counter bumped on every change to the catalog, including stock changes.
+     */
+    long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Caches a product as read from the database, taking off the units still unposted.
+     */
+    synchronized void put(Product product) {
+        if (snapshot == null) {
+            return; // the next load reads it from the database
+        }
+        product.setQuantityInStock(product.getQuantityInStock() - unposted.getOrDefault(product.getId(), 0));
+        publish(product);
+    }
+
+    /**
+     * Caches edited details for a product whose database stock was moved by {@code delta};
+     * its stock is the cached stock moved the same way, so sales reserved meanwhile stay off.
+     */
+    synchronized void replace(Product product, int delta) {
+        Product existing = cached(product.getId());
+        if (existing == null) {
+            return; // the next load reads it from the database
+        }
+        product.setQuantityInStock(existing.getQuantityInStock() + delta);
+        publish(product);
+    }
+
+    synchronized void remove(int productId) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        List<Product> products = new ArrayList<>(current.byName);
+        products.removeIf(p -> p.getId() == productId);
+        snapshot = new Snapshot(products);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Difference between a counted quantity and cached stock, which already has unposted
+     * sales off, so it can be applied to database stock that does not; null if there is
+     * no such product.
+     */
+    Integer stockDelta(int productId, int quantity) {
+        getById(productId); // loads before taking the monitor
+        synchronized (this) {
+            Product product = cached(productId);
+            return product != null ? quantity - product.getQuantityInStock() : null;
+        }
+    }
+
+    /**
+     * Takes the quantities off cached stock if every product has enough, all or nothing,
+     * so two counters billing the last units cannot both sell them.
+     *
+     * @return 0 if the stock was taken, otherwise the ID of a product without enough
+     */
+    int tryReserveStock(Map<Integer, Integer> quantities) {
+        for (int productId : quantities.keySet()) {
+            getById(productId); // loads, and fetches products added elsewhere, before taking the monitor
+        }
+        synchronized (this) {
+            for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                Product product = cached(entry.getKey());
+                if (product == null || product.getQuantityInStock() < entry.getValue()) {
+                    return entry.getKey();
+                }
+            }
+            for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                Product product = cached(entry.getKey());
+                product.setQuantityInStock(product.getQuantityInStock() - entry.getValue());
+                unposted.merge(entry.getKey(), entry.getValue(), Integer::sum);
+            }
+            version.incrementAndGet();
+            return 0;
+        }
+    }
+
+    /**
+     * Records reserved units that are now in the database, once their invoice is posted.
+     * Cached stock already has them taken off.
+     */
+    synchronized void settleReservation(Map<Integer, Integer> quantities) {
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            unposted.computeIfPresent(entry.getKey(), (id, units) -> units > entry.getValue() ? units - entry.getValue() : null);
+        }
+    }
+
+    /**
+     * Puts reserved units back in cached stock for a sale that will never be posted.
+     */
+    synchronized void releaseReservation(Map<Integer, Integer> quantities) {
+        settleReservation(quantities);
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            adjustStock(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Takes units journaled in an earlier run, and not yet posted, off cached stock
+     * without checking it; they were sold before this cache was loaded.
+     */
+    synchronized void holdUnposted(Map<Integer, Integer> quantities) {
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            unposted.merge(entry.getKey(), entry.getValue(), Integer::sum);
+            adjustStock(entry.getKey(), -entry.getValue());
+        }
+    }
+
+    /**
+     * Runs a database stock or catalog write together with the cache update that mirrors it. Reloads
+     * wait for it, so none reads the database after the write but swaps in its snapshot
+     * before the cache update, which would apply the change twice.
+     */
+    <T, E extends Exception> T writeStock(StockWrite<T, E> write) throws E {
+        synchronized (stockWrites) {
+            return write.run();
+        }
+    }
+
+    /**
+     * Number of catalog loads so far. A database write made outside {@link #writeStock}
+     * can be mirrored in the cache only if no load ran after it; compare the count taken
+     * before the write with the count under writeStock afterwards.
+     */
+    long getLoadCount() {
+        return loads.sum();
+    }
+
+    /**
+     * Reloads in the background now rather than after the refresh interval, for a cache
+     * update that could not tell whether a load already read its write.
+     */
+    void reload() {
+        if (snapshot != null) {
+            reloadRequested.set(true);
+            reloadInBackground();
+        }
+    }
+
+    synchronized void adjustStock(int productId, int delta) {
+        Product product = cached(productId);
+        if (product != null) {
+            product.setQuantityInStock(product.getQuantityInStock() + delta);
+            version.incrementAndGet();
+        }
+    }
+
+    synchronized void invalidate() {
+        snapshot = null;
+    }
+
+    CatalogCacheStats getStats() {
+        Snapshot current = snapshot;
+        return new CatalogCacheStats(hits.sum(), misses.sum(), loads.sum(),
+            current != null ? current.byName.size() : 0);
+    }
+
+    /**
+     * The current snapshot, loaded on the calling thread only if there is none yet. Must
+     * not be called with this cache's monitor held, since loading takes stockWrites.
+     */
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return load(false);
+        }
+        if (System.currentTimeMillis() - loadedAt > refreshIntervalMs) {
+            reloadInBackground();
+        }
+        return current;
+    }
+
+    private void reloadInBackground() {
+        if (!reloading.compareAndSet(false, true)) {
+            return;
+        }
+        // Callers are often on the FX thread, and a reload can wait seconds for the database
+        try {
+            ServiceExecutor.supplyDetached(() -> {
+                try {
+                    reloadRequested.set(false);
+                    return load(true);
+                } finally {
+                    reloading.set(false);
+                    // Asked for while this one may already have read the table
+                    if (reloadRequested.get()) {
+                        reloadInBackground();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            reloading.set(false); // shutting down; keep serving what is cached
+        }
+    }
+
+    private Snapshot load(boolean replace) {
+        synchronized (stockWrites) {
+            Snapshot current = snapshot;
+            if (current != null && !replace) {
+                return current; // loaded by another thread meanwhile
+            }
+            List<Product> products = productDAO.getAllProducts();
+            synchronized (this) {
+                current = snapshot;
+                if (products.isEmpty() && current != null && !current.byName.isEmpty()) {
+                    // Most likely the database is unreachable; keep billing from the old catalog
+                    logger.warn("Catalog reload returned no products; keeping the previous snapshot");
+                    loadedAt = System.currentTimeMillis();
+                    return current;
+                }
+                for (Product product : products) {
+                    Integer units = unposted.get(product.getId());
+                    if (units != null) {
+                        product.setQuantityInStock(product.getQuantityInStock() - units);
+                    }
+                }
+                current = new Snapshot(products);
+                snapshot = current;
+                loadedAt = System.currentTimeMillis();
+                loads.increment();
+                version.incrementAndGet();
+                return current;
+            }
+        }
+    }
+
+    /**
+     * Swaps a product into a new snapshot; called with the monitor held.
+     */
+    private void publish(Product product) {
+        Snapshot current = snapshot;
+        List<Product> products = new ArrayList<>(current.byName.size() + 1);
+        for (Product existing : current.byName) {
+            if (existing.getId() != product.getId()) {
+                products.add(existing);
+            }
+        }
+        products.add(product);
+        snapshot = new Snapshot(products);
+        version.incrementAndGet();
+    }
+
+    /**
+     * The cached instance of a product, without loading; called with the monitor held.
+     */
+    private Product cached(int productId) {
+        Snapshot current = snapshot;
+        return current != null ? current.getById(productId) : null;
+    }
+
+    /**
+     * A database write for {@link #writeStock}.
+     */
+    interface StockWrite<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    private static class Snapshot {
+        // Indexed directly by product ID; IDs are auto-increment so the array stays dense
+        private final Product[] byId;
+        private final Map<String, Product> bySku;
+        private final Map<String, List<Product>> byCategory;
+        private final List<Product> byName;
+        private final List<String> categories;
+        private volatile ProductSearchIndex searchIndex;
+
+        Snapshot(List<Product> products) {
+            int maxId = 0;
+            for (Product product : products) {
+                maxId = Math.max(maxId, product.getId());
+            }
+            byId = new Product[maxId + 1];
+            bySku = new HashMap<>(products.size() * 2);
+            Map<String, List<Product>> categoryIndex = new TreeMap<>();
+            for (Product product : products) {
+                byId[product.getId()] = product;
+                bySku.put(product.getSku(), product);
+                categoryIndex.computeIfAbsent(product.getCategory(), c -> new ArrayList<>()).add(product);
+            }
+
+            Comparator<Product> byNameOrder = Comparator.comparing(Product::getName, String.CASE_INSENSITIVE_ORDER);
+            List<Product> sorted = new ArrayList<>(products);
+            sorted.sort(byNameOrder);
+            byName = Collections.unmodifiableList(sorted);
+
+            for (Map.Entry<String, List<Product>> entry : categoryIndex.entrySet()) {
+                entry.getValue().sort(byNameOrder);
+                entry.setValue(Collections.unmodifiableList(entry.getValue()));
+            }
+            byCategory = categoryIndex;
+            categories = List.copyOf(categoryIndex.keySet());
+        }
+
+        Product getById(int id) {
+            return id > 0 && id < byId.length ? byId[id] : null;
+        }
+
+        ProductSearchIndex searchIndex() {
+            ProductSearchIndex index = searchIndex;
+            if (index == null) {
+                synchronized (this) {
+                    index = searchIndex;
+                    if (index == null) {
+                        index = new ProductSearchIndex(byName);
+                        searchIndex = index;
+                    }
+                }
+            }
+            return index;
+        }
+    }
+}
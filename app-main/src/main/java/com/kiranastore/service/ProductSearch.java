@@ -0,0 +1,46 @@
+package com.kiranastore.service;
+
+import com.kiranastore.model.Product;
+
+import java.util.List;
+
+/**
+ * A search session for one view. Remembers its last result so that typing more
+ * characters only rechecks the products that already matched. Not thread-safe;
+ * use it from the thread that owns the view.
+ */
+public class ProductSearch {
+    private final ProductCatalogCache catalog;
+
+    private ProductSearchIndex lastIndex;
+    private String lastQuery;
+    private String lastCategory;
+    private int[] lastMatches;
+
+    ProductSearch(ProductCatalogCache catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * Products whose name or SKU contains the query (case-insensitive), in name order.
+     * A null category matches every category.
+     */
+    public List<Product> search(String query, String category) {
+        ProductSearchIndex index = catalog.getSearchIndex();
+        String normalized = ProductSearchIndex.normalize(query);
+
+        // A query that contains the previous one can only match a subset of its results
+        int[] within = null;
+        if (index == lastIndex && lastMatches != null && normalized.contains(lastQuery)
+            && (category == null ? lastCategory == null : category.equals(lastCategory))) {
+            within = lastMatches;
+        }
+
+        int[] matches = index.search(normalized, category, within);
+        lastIndex = index;
+        lastQuery = normalized;
+        lastCategory = category;
+        lastMatches = matches;
+        return index.toProducts(matches);
+    }
+}
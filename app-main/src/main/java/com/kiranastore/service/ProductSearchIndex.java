@@ -0,0 +1,283 @@
+package com.kiranastore.service;
+
+import com.kiranastore.model.Product;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Substring search over product name and SKU, with an exact category filter.
+ *
+ * Built once per catalog snapshot. Products are numbered by their position in the
+ * name-sorted catalog list, and every 2- and 3-character gram of the lowercased name
+ * and SKU maps to the sorted positions containing it. A query only checks the products
+ * in its rarest gram's postings, so a search touches a few hundred products rather than
+ * the whole catalog. Products are shared with the catalog cache, so stock stays live.
+ *
+ * For type-ahead there is also a hash of lowercased SKUs and two sorted key arrays,
+ * one of full names and one of single words and SKUs, so ranked prefix suggestions
+ * cost two binary searches plus the handful of entries returned.
+ */
+class ProductSearchIndex {
+    private static final int MIN_GRAM = 2;
+    private static final int MAX_GRAM = 3;
+    private static final int[] NONE = new int[0];
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final List<Product> products;
+    private final String[] searchText;
+    private final Map<String, int[]> postings;
+    private final Map<String, int[]> categoryPostings;
+    private final int[] all;
+    private final Map<String, Integer> skuPositions;
+    private final String[] nameKeys;
+    private final int[] namePositions;
+    private final String[] tokenKeys;
+    private final int[] tokenPositions;
+
+    ProductSearchIndex(List<Product> products) {
+        this.products = products;
+        this.searchText = new String[products.size()];
+        this.all = new int[products.size()];
+
+        Map<String, Postings> grams = new HashMap<>();
+        Map<String, Postings> categories = new HashMap<>();
+        Set<String> productGrams = new HashSet<>();
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            String name = normalize(product.getName());
+            String sku = normalize(product.getSku());
+            searchText[i] = name + '\n' + sku;
+            all[i] = i;
+
+            productGrams.clear();
+            addGrams(name, productGrams);
+            addGrams(sku, productGrams);
+            for (String gram : productGrams) {
+                grams.computeIfAbsent(gram, g -> new Postings()).add(i);
+            }
+            categories.computeIfAbsent(String.valueOf(product.getCategory()), c -> new Postings()).add(i);
+        }
+        this.postings = toArrays(grams);
+        this.categoryPostings = toArrays(categories);
+
+        this.skuPositions = new HashMap<>(products.size() * 2);
+        List<PrefixKey> names = new ArrayList<>(products.size());
+        List<PrefixKey> tokens = new ArrayList<>(products.size() * 3);
+        for (int i = 0; i < products.size(); i++) {
+            String name = normalize(products.get(i).getName());
+            String sku = normalize(products.get(i).getSku());
+            skuPositions.putIfAbsent(sku, i);
+            names.add(new PrefixKey(name, i));
+            tokens.add(new PrefixKey(sku, i));
+            for (String word : WORD_SEPARATOR.split(name)) {
+                if (!word.isEmpty()) {
+                    tokens.add(new PrefixKey(word, i));
+                }
+            }
+        }
+        names.sort(null);
+        tokens.sort(null);
+        this.nameKeys = new String[names.size()];
+        this.namePositions = new int[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            nameKeys[i] = names.get(i).key;
+            namePositions[i] = names.get(i).position;
+        }
+        this.tokenKeys = new String[tokens.size()];
+        this.tokenPositions = new int[tokens.size()];
+        for (int i = 0; i < tokens.size(); i++) {
+            tokenKeys[i] = tokens.get(i).key;
+            tokenPositions[i] = tokens.get(i).position;
+        }
+    }
+
+    /**
+     * Product with this exact SKU, ignoring case, or null.
+     */
+    Product findBySku(String code) {
+        Integer position = skuPositions.get(normalize(code));
+        return position != null ? products.get(position) : null;
+    }
+
+    /**
+     * Up to {@code limit} products for a type-ahead prefix, best first: an exact SKU,
+     * then names starting with the prefix, then products with a word or SKU starting
+     * with it, then any other name or SKU containing it. Each group is in alphabetical order.
+     */
+    List<Product> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) {
+            return toProducts(Arrays.copyOf(all, Math.min(limit, all.length)));
+        }
+
+        int[] picked = new int[limit];
+        int count = 0;
+        Integer exact = skuPositions.get(prefix);
+        if (exact != null && limit > 0) {
+            picked[count++] = exact;
+        }
+        count = collectPrefixMatches(nameKeys, namePositions, prefix, picked, count);
+        count = collectPrefixMatches(tokenKeys, tokenPositions, prefix, picked, count);
+        if (count < limit) {
+            // Fill up with plain substring matches, e.g. a query spanning two words
+            for (int position : search(prefix, null, null)) {
+                if (count == limit) {
+                    break;
+                }
+                if (!contains(picked, count, position)) {
+                    picked[count++] = position;
+                }
+            }
+        }
+        return toProducts(Arrays.copyOf(picked, count));
+    }
+
+    /**
+     * Positions of the products whose name or SKU contains the query, optionally limited
+     * to one category, in catalog order. If {@code within} is given only those positions
+     * are checked; callers pass the result of a query this one extends.
+     */
+    int[] search(String normalizedQuery, String category, int[] within) {
+        int[] candidates = within;
+        if (candidates == null) {
+            candidates = category != null ? categoryPostings.getOrDefault(category, NONE) : all;
+            if (normalizedQuery.length() >= MIN_GRAM) {
+                int[] rarest = rarestPostings(normalizedQuery);
+                if (rarest.length < candidates.length) {
+                    candidates = rarest;
+                }
+            }
+        }
+
+        int[] matches = new int[candidates.length];
+        int count = 0;
+        for (int position : candidates) {
+            if ((category == null || category.equals(products.get(position).getCategory()))
+                && searchText[position].contains(normalizedQuery)) {
+                matches[count++] = position;
+            }
+        }
+        return count == matches.length ? matches : Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Read-only view of the products at the given positions.
+     */
+    List<Product> toProducts(int[] positions) {
+        return new AbstractList<>() {
+            @Override
+            public Product get(int index) {
+                return products.get(positions[index]);
+            }
+
+            @Override
+            public int size() {
+                return positions.length;
+            }
+        };
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private int[] rarestPostings(String query) {
+        int gramLength = Math.min(MAX_GRAM, query.length());
+        int[] rarest = null;
+        for (int start = 0; start + gramLength <= query.length(); start++) {
+            int[] list = postings.get(query.substring(start, start + gramLength));
+            if (list == null) {
+                return NONE;
+            }
+            if (rarest == null || list.length < rarest.length) {
+                rarest = list;
+            }
+        }
+        return rarest;
+    }
+
+    private static int collectPrefixMatches(String[] keys, int[] positions, String prefix, int[] picked, int count) {
+        int index = Arrays.binarySearch(keys, prefix);
+        if (index < 0) {
+            index = -index - 1;
+        } else {
+            // Equal keys are adjacent; start from the first of them
+            while (index > 0 && keys[index - 1].equals(prefix)) {
+                index--;
+            }
+        }
+        for (; index < keys.length && count < picked.length && keys[index].startsWith(prefix); index++) {
+            if (!contains(picked, count, positions[index])) {
+                picked[count++] = positions[index];
+            }
+        }
+        return count;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void addGrams(String text, Set<String> grams) {
+        for (int length = MIN_GRAM; length <= MAX_GRAM; length++) {
+            for (int start = 0; start + length <= text.length(); start++) {
+                grams.add(text.substring(start, start + length));
+            }
+        }
+    }
+
+    private static Map<String, int[]> toArrays(Map<String, Postings> lists) {
+        Map<String, int[]> arrays = new HashMap<>(lists.size() * 2);
+        for (Map.Entry<String, Postings> entry : lists.entrySet()) {
+            arrays.put(entry.getKey(), entry.getValue().toArray());
+        }
+        return arrays;
+    }
+
+    private static final class PrefixKey implements Comparable<PrefixKey> {
+        private final String key;
+        private final int position;
+
+        PrefixKey(String key, int position) {
+            this.key = key;
+            this.position = position;
+        }
+
+        @Override
+        public int compareTo(PrefixKey other) {
+            int byKey = key.compareTo(other.key);
+            return byKey != 0 ? byKey : Integer.compare(position, other.position);
+        }
+    }
+
+    // Growable int list; positions are added in increasing order so each list stays sorted
+    private static final class Postings {
+        private int[] positions = new int[4];
+        private int size;
+
+        void add(int position) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(positions, size);
+        }
+    }
+}
@@ -1,16 +1,31 @@
 package com.kiranastore.service;
 
 import com.kiranastore.dao.ProductDAO;
+import com.kiranastore.model.InventorySummary;
+import com.kiranastore.model.InvoiceItem;
+import com.kiranastore.model.Money;
 import com.kiranastore.model.Product;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public class ProductService {
     private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
+    private static final long SUMMARY_MAX_AGE_MS = 5_000;
+
     private final ProductDAO productDAO = new ProductDAO();
+    private final ProductCatalogCache catalog = ProductCatalogCache.getInstance();
+
+    // Shared by all service instances; cleared whenever this service changes the catalog
+    private static volatile InventorySummary cachedSummary;
+    private static volatile long cachedSummaryTime;
 
     public boolean addProduct(Product product) {
         if (product.getName() == null || product.getName().trim().isEmpty()) {
@@ -21,47 +36,116 @@ public class ProductService {
             logger.warn("Product SKU is empty");
             return false;
         }
-        if (product.getSellingPrice() <= 0 || product.getBuyingPrice() <= 0) {
+        if (product.getSellingPrice().getPaise() <= 0 || product.getBuyingPrice().getPaise() <= 0) {
             logger.warn("Invalid prices");
             return false;
         }
-        return productDAO.addProduct(product);
+        boolean added = catalog.writeStock(() -> {
+            if (!productDAO.addProduct(product)) {
+                return false;
+            }
+            if (product.getId() > 0) {
+                catalog.put(product);
+            } else {
+                catalog.invalidate();
+            }
+            return true;
+        });
+        if (added) {
+            invalidateInventorySummary();
+        }
+        return added;
     }
 
+    /**
+     * The product's quantity is taken as counted against cached stock, which has unposted
+     * sales off already; the database gets the difference rather than the figure.
+     */
     public boolean updateProduct(Product product) {
-        return productDAO.updateProduct(product);
+        boolean updated = catalog.writeStock(() -> {
+            Integer delta = catalog.stockDelta(product.getId(), product.getQuantityInStock());
+            if (delta == null) {
+                logger.warn("Product not found: {}", product.getId());
+                return false;
+            }
+            if (!productDAO.updateProduct(product, delta)) {
+                return false;
+            }
+            catalog.replace(product, delta);
+            return true;
+        });
+        if (updated) {
+            invalidateInventorySummary();
+        }
+        return updated;
     }
 
     public boolean deleteProduct(int productId) {
-        return productDAO.deleteProduct(productId);
+        // Under writeStock so a reload that read the table before the delete cannot bring it back
+        boolean deleted = catalog.writeStock(() -> {
+            if (!productDAO.deleteProduct(productId)) {
+                return false;
+            }
+            catalog.remove(productId);
+            return true;
+        });
+        if (deleted) {
+            invalidateInventorySummary();
+        }
+        return deleted;
     }
 
+    /**
+     * Served from the in-memory catalog; the returned product is the shared cached
+     * instance, so its stock reflects every change made through this service.
+     */
     public Product getProductById(int id) {
-        return productDAO.getProductById(id);
+        return catalog.getById(id);
     }
 
     public Product getProductBySku(String sku) {
-        return productDAO.getProductBySku(sku);
+        return catalog.getBySku(sku);
     }
 
     public List<Product> getAllProducts() {
-        return productDAO.getAllProducts();
+        return new ArrayList<>(catalog.getAll());
     }
 
     public List<Product> getProductsByCategory(String category) {
-        return productDAO.getProductsByCategory(category);
+        return new ArrayList<>(catalog.getByCategory(category));
     }
 
     public List<Product> getLowStockProducts() {
-        return productDAO.getLowStockProducts();
+        return catalog.getAll().stream()
+            .filter(Product::isLowStock)
+            .sorted(Comparator.comparingInt(Product::getQuantityInStock))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Starts a search session over the cached catalog; see {@link ProductSearch}.
+     */
+    public ProductSearch newSearch() {
+        return new ProductSearch(catalog);
+    }
+
+    /**
+     * Ranked type-ahead matches for a prefix, at most {@code limit} of them, from memory.
+     */
+    public List<Product> suggestProducts(String prefix, int limit) {
+        return catalog.getSearchIndex().suggest(prefix, limit);
+    }
+
+    /**
+     * Product whose SKU equals a typed or scanned code, ignoring case, from memory only;
+     * null if the cached catalog has no such SKU. Scanned barcodes are matched as SKUs.
+     */
+    public Product findByCode(String code) {
+        return catalog.getSearchIndex().findBySku(code);
     }
 
     public List<String> getAllCategories() {
-        return getAllProducts().stream()
-            .map(Product::getCategory)
-            .distinct()
-            .sorted()
-            .collect(Collectors.toList());
+        return new ArrayList<>(catalog.getCategories());
     }
 
     public boolean updateStock(int productId, int newQuantity) {
@@ -69,28 +153,172 @@ public class ProductService {
             logger.warn("Invalid quantity: {}", newQuantity);
             return false;
         }
-        return productDAO.updateStock(productId, newQuantity);
+        boolean updated = catalog.writeStock(() -> {
+            // Counted against cached stock, like updateProduct
+            Integer delta = catalog.stockDelta(productId, newQuantity);
+            if (delta == null) {
+                logger.warn("Product not found: {}", productId);
+                return false;
+            }
+            if (!productDAO.adjustStock(productId, delta)) {
+                return false;
+            }
+            catalog.adjustStock(productId, delta);
+            return true;
+        });
+        if (updated) {
+            invalidateInventorySummary();
+        }
+        return updated;
+    }
+
+    /**
+     * Takes a sale's quantities off cached stock before it is journaled, all or nothing;
+     * the database catches up when the journal posts it.
+     *
+     * @return 0 if the stock was taken, otherwise the ID of a product without enough
+     */
+    public int reserveStock(List<InvoiceItem> items) {
+        return catalog.tryReserveStock(quantitiesByProduct(items));
+    }
+
+    /**
+     * Puts back cached stock taken by {@link #reserveStock} for a sale that was never
+     * recorded in the database.
+     */
+    public void releaseStock(List<InvoiceItem> items) {
+        catalog.releaseReservation(quantitiesByProduct(items));
+        invalidateInventorySummary();
+    }
+
+    /**
+     * Records that stock taken by {@link #reserveStock} is now decremented in the
+     * database too, once the journal has posted the sale.
+     */
+    public void settleReservedStock(List<InvoiceItem> items) {
+        catalog.settleReservation(quantitiesByProduct(items));
+    }
+
+    /**
+     * Takes a sale journaled in an earlier run, and not posted yet, off cached stock;
+     * the database does not include it until the journal posts it.
+     */
+    public void holdUnpostedStock(List<InvoiceItem> items) {
+        catalog.holdUnposted(quantitiesByProduct(items));
+        invalidateInventorySummary();
+    }
+
+    /**
+     * Runs a database stock write and its catalog update with catalog reloads held off;
+     * see {@link ProductCatalogCache#writeStock}.
+     */
+    <T, E extends Exception> T writeStock(ProductCatalogCache.StockWrite<T, E> write) throws E {
+        return catalog.writeStock(write);
+    }
+
+    /**
+     * Catalog loads so far; see {@link ProductCatalogCache#getLoadCount}.
+     */
+    long getCatalogLoadCount() {
+        return catalog.getLoadCount();
+    }
+
+    /**
+     * Reloads the cached catalog in the background without waiting for the interval.
+     */
+    void reloadCatalog() {
+        catalog.reload();
+    }
+
+    /**
+     * Applies stock decrements already committed to the database (for example by an
+     * invoice) to the cached catalog.
+     */
+    public void applyCommittedSale(List<InvoiceItem> items) {
+        for (InvoiceItem item : items) {
+            catalog.adjustStock(item.getProductId(), -item.getQuantity());
+        }
+        invalidateInventorySummary();
+    }
+
+    private static Map<Integer, Integer> quantitiesByProduct(List<InvoiceItem> items) {
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        for (InvoiceItem item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    public CatalogCacheStats getCatalogCacheStats() {
+        return catalog.getStats();
+    }
+
+    /**
+     * Product count, stock, value, cost and low-stock count from a single aggregate query.
+     */
+    public InventorySummary getInventorySummary() {
+        InventorySummary summary = productDAO.getInventorySummary();
+        cachedSummary = summary;
+        cachedSummaryTime = System.currentTimeMillis();
+        return summary;
+    }
+
+    /**
+     * Like {@link #getInventorySummary()} but reuses a result up to a few seconds old.
+     */
+    public InventorySummary getCachedInventorySummary() {
+        InventorySummary summary = cachedSummary;
+        if (summary != null && System.currentTimeMillis() - cachedSummaryTime < SUMMARY_MAX_AGE_MS) {
+            return summary;
+        }
+        return getInventorySummary();
+    }
+
+    public static void invalidateInventorySummary() {
+        cachedSummary = null;
+        // Every stock or catalog change, including committed sales, also dates the dashboard
+        DashboardService.markStale();
     }
 
-    public double getTotalInventoryValue() {
-        return getAllProducts().stream()
-            .mapToDouble(p -> p.getSellingPrice() * p.getQuantityInStock())
-            .sum();
+    public Money getTotalInventoryValue() {
+        return getInventorySummary().getTotalInventoryValue();
     }
 
-    public double getTotalInventoryCost() {
-        return getAllProducts().stream()
-            .mapToDouble(p -> p.getBuyingPrice() * p.getQuantityInStock())
-            .sum();
+    public Money getTotalInventoryCost() {
+        return getInventorySummary().getTotalInventoryCost();
     }
 
     public int getTotalProductCount() {
-        return getAllProducts().size();
+        return getInventorySummary().getProductCount();
     }
 
     public int getTotalStockQuantity() {
-        return getAllProducts().stream()
-            .mapToInt(Product::getQuantityInStock)
-            .sum();
+        return getInventorySummary().getTotalStockQuantity();
+    }
+
+    // Async variants - run on virtual threads via ServiceExecutor
+
+    public CompletableFuture<List<Product>> getAllProductsAsync() {
+        return ServiceExecutor.supply(this::getAllProducts);
+    }
+
+    public CompletableFuture<List<Product>> getLowStockProductsAsync() {
+        return ServiceExecutor.supply(this::getLowStockProducts);
+    }
+
+    public CompletableFuture<List<Product>> suggestProductsAsync(String prefix, int limit) {
+        return ServiceExecutor.supply(() -> suggestProducts(prefix, limit));
+    }
+
+    public CompletableFuture<List<String>> getAllCategoriesAsync() {
+        return ServiceExecutor.supply(this::getAllCategories);
+    }
+
+    public CompletableFuture<InventorySummary> getInventorySummaryAsync() {
+        return ServiceExecutor.supply(this::getInventorySummary);
+    }
+
+    public CompletableFuture<InventorySummary> getCachedInventorySummaryAsync() {
+        return ServiceExecutor.supply(this::getCachedInventorySummary);
     }
 }
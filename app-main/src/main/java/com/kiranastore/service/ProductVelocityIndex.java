@@ -0,0 +1,379 @@
+package com.kiranastore.service;
+
+import com.kiranastore.config.AppConfig;
+import com.kiranastore.model.AbcClass;
+import com.kiranastore.model.Money;
+import com.kiranastore.model.Product;
+import com.kiranastore.model.ProductVelocity;
+import com.kiranastore.model.VelocityMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Per-product units, revenue and cost over the last 7, 30 and 90 days, with products
+ * kept ranked by each metric in every window so a top-K list is read straight off the
+ * front of a sorted set.
+ *
+ * Window totals are running counters: a committed invoice adds its lines, and when the
+ * day changes the lines of the day that slid out of each window are subtracted again.
+ * Those lines come from a history of the last 90 days' lines kept here, so the sliding
+ * never goes back to the database or the column store.
+ *
+ * Fed by {@link SalesColumnStore#subscribe}, like {@link SalesCube}.
+ */
+class ProductVelocityIndex implements SalesColumnStore.InvoiceListener {
+    private static final Logger logger = LoggerFactory.getLogger(ProductVelocityIndex.class);
+    static final int[] WINDOWS = {7, 30, 90};
+    private static final int HISTORY_DAYS = 90;
+    private static final int QUANTITY = 0;
+    private static final int REVENUE = 1;
+    private static final int COST = 2;
+    private static final int METRICS = VelocityMetric.values().length;
+    // Created after the constants above, which the constructor reads
+    private static final ProductVelocityIndex INSTANCE = new ProductVelocityIndex();
+
+    private final ProductService productService = new ProductService();
+    private final Object buildLock = new Object();
+    private final int classAPercent = AppConfig.get().getInt("reports.abc.classAPercent", 80);
+    private final int classBPercent = AppConfig.get().getInt("reports.abc.classBPercent", 95);
+
+    // All below guarded by this
+    private final TreeMap<Integer, DayLines> history = new TreeMap<>();
+    private final long[][][] totals = new long[WINDOWS.length][3][1024]; // [window][measure][product ID]
+    private final List<TreeSet<Integer>> rankings = new ArrayList<>(); // window * METRICS + metric
+    private final Map<Integer, Map<Integer, AbcClass>> abcByWindow = new HashMap<>();
+    private final long[] abcVersions = new long[WINDOWS.length];
+    private int currentDay = (int) LocalDate.now().toEpochDay();
+    private long version;
+    private boolean bulkLoading;
+    private volatile boolean built;
+
+    private ProductVelocityIndex() {
+        for (int w = 0; w < WINDOWS.length; w++) {
+            for (VelocityMetric metric : VelocityMetric.values()) {
+                int window = w;
+                rankings.add(new TreeSet<>((a, b) -> {
+                    int byValue = Long.compare(value(window, metric, b), value(window, metric, a));
+                    return byValue != 0 ? byValue : Integer.compare(a, b);
+                }));
+            }
+        }
+    }
+
+    static ProductVelocityIndex getInstance() {
+        return INSTANCE;
+    }
+
+    boolean isBuilt() {
+        return built;
+    }
+
+    /**
+     * Fills the index from the store and keeps it current from then on. The store must
+     * be loaded. Does nothing once built.
+     */
+    void build(SalesColumnStore store) {
+        // Not this index's monitor: the store calls invoiceAdded with its own lock held
+        synchronized (buildLock) {
+            if (built) {
+                return;
+            }
+            long start = System.nanoTime();
+            synchronized (this) {
+                bulkLoading = true; // rankings are sorted once at the end instead of per line
+            }
+            store.subscribe(this);
+            synchronized (this) {
+                bulkLoading = false;
+                rebuildRankings();
+            }
+            built = true;
+            logger.info("Built the product velocity index in {} ms", (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    @Override
+    public synchronized void invoiceAdded(SalesColumnStore.InvoiceLines invoice) {
+        int day = (int) invoice.getInvoiceDate().toLocalDate().toEpochDay();
+        if (day > currentDay) {
+            rollTo(day);
+        }
+        int age = currentDay - day;
+        if (age >= HISTORY_DAYS) {
+            return;
+        }
+        DayLines lines = history.computeIfAbsent(day, d -> new DayLines());
+        for (int i = 0; i < invoice.getLineCount(); i++) {
+            int productId = invoice.getProductId(i);
+            long quantity = invoice.getQuantity(i);
+            long revenue = invoice.getUnitPrice(i) * quantity;
+            long cost = invoice.getUnitCost(i) * quantity;
+            lines.add(productId, quantity, revenue, cost);
+            for (int w = 0; w < WINDOWS.length; w++) {
+                if (age < WINDOWS[w]) {
+                    adjust(w, productId, quantity, revenue, cost);
+                }
+            }
+        }
+        version++;
+    }
+
+    /**
+     * The k best products over the window by the given metric, best first. Only products
+     * sold in the window are listed, without an ABC class; see {@link #classifyCatalog}.
+     */
+    List<ProductVelocity> top(VelocityMetric metric, int windowDays, int k) {
+        int w = windowIndex(windowDays);
+        List<WindowTotals> ranked = new ArrayList<>(Math.min(k, 100));
+        synchronized (this) {
+            rollTo((int) LocalDate.now().toEpochDay());
+            Iterator<Integer> productIds = rankings.get(w * METRICS + metric.ordinal()).iterator();
+            while (ranked.size() < k && productIds.hasNext()) {
+                ranked.add(windowTotals(w, productIds.next()));
+            }
+        }
+        // Names are looked up after releasing the monitor, which invoiceAdded needs
+        List<ProductVelocity> top = new ArrayList<>(ranked.size());
+        for (WindowTotals totals : ranked) {
+            top.add(velocity(totals, productService.getProductById(totals.productId), null));
+        }
+        return top;
+    }
+
+    /**
+     * Every catalog product, plus any sold product no longer in the catalog, with its ABC
+     * class by revenue over the window; highest revenue first.
+     */
+    List<ProductVelocity> classifyCatalog(int windowDays) {
+        int w = windowIndex(windowDays);
+        List<WindowTotals> sold = new ArrayList<>();
+        Map<Integer, AbcClass> abc;
+        synchronized (this) {
+            rollTo((int) LocalDate.now().toEpochDay());
+            abc = classify(w);
+            for (int productId : rankings.get(w * METRICS + VelocityMetric.REVENUE.ordinal())) {
+                sold.add(windowTotals(w, productId));
+            }
+        }
+        Map<Integer, Product> products = new HashMap<>();
+        List<Product> all = productService.getAllProducts();
+        for (Product product : all) {
+            products.put(product.getId(), product);
+        }
+        List<ProductVelocity> catalog = new ArrayList<>(Math.max(sold.size(), all.size()));
+        for (WindowTotals totals : sold) {
+            catalog.add(velocity(totals, products.get(totals.productId), abc.get(totals.productId)));
+        }
+        for (Product product : all) {
+            if (!abc.containsKey(product.getId())) {
+                catalog.add(new ProductVelocity(product.getId(), product.getName(), product.getCategory(),
+                    WINDOWS[w], 0, Money.ZERO, Money.ZERO, AbcClass.C));
+            }
+        }
+        return catalog;
+    }
+
+    /**
+     * Classes by cumulative share of window revenue: A until classAPercent of it is
+     * reached, B until classBPercent, then C. Reused until the totals change. O(n) in
+     * the products sold, so only {@link #classifyCatalog} pays for it, not {@link #top}.
+     */
+    private Map<Integer, AbcClass> classify(int w) {
+        Map<Integer, AbcClass> cached = abcByWindow.get(w);
+        if (cached != null && abcVersions[w] == version) {
+            return cached;
+        }
+        TreeSet<Integer> byRevenue = rankings.get(w * METRICS + VelocityMetric.REVENUE.ordinal());
+        long totalRevenue = 0;
+        for (int productId : byRevenue) {
+            totalRevenue += Math.max(0, totals[w][REVENUE][productId]);
+        }
+        Map<Integer, AbcClass> abc = new HashMap<>();
+        long cumulative = 0;
+        for (int productId : byRevenue) {
+            long revenue = totals[w][REVENUE][productId];
+            // A product is placed by the share reached before it, so the one crossing a threshold stays in the higher class
+            double shareBefore = totalRevenue == 0 ? 100 : cumulative * 100.0 / totalRevenue;
+            AbcClass abcClass = revenue <= 0 ? AbcClass.C
+                : shareBefore < classAPercent ? AbcClass.A
+                : shareBefore < classBPercent ? AbcClass.B : AbcClass.C;
+            abc.put(productId, abcClass);
+            cumulative += Math.max(0, revenue);
+        }
+        abcByWindow.put(w, abc);
+        abcVersions[w] = version;
+        return abc;
+    }
+
+    private WindowTotals windowTotals(int w, int productId) {
+        return new WindowTotals(productId, WINDOWS[w], totals[w][QUANTITY][productId],
+            totals[w][REVENUE][productId], totals[w][COST][productId]);
+    }
+
+    private static ProductVelocity velocity(WindowTotals totals, Product product, AbcClass abcClass) {
+        return new ProductVelocity(totals.productId,
+            product != null ? product.getName() : "Product #" + totals.productId,
+            product != null ? product.getCategory() : null,
+            totals.windowDays, totals.quantity,
+            Money.ofPaise(totals.revenue), Money.ofPaise(totals.revenue - totals.cost), abcClass);
+    }
+
+    /**
+     * Moves today forward to the given day, subtracting the lines that leave each window.
+     */
+    private void rollTo(int day) {
+        if (day <= currentDay) {
+            return;
+        }
+        if (day - currentDay >= HISTORY_DAYS) {
+            // Everything held has slid out of every window
+            history.clear();
+            for (long[][] window : totals) {
+                for (long[] measure : window) {
+                    Arrays.fill(measure, 0);
+                }
+            }
+            for (TreeSet<Integer> ranking : rankings) {
+                ranking.clear();
+            }
+        } else {
+            for (int next = currentDay + 1; next <= day; next++) {
+                for (int w = 0; w < WINDOWS.length; w++) {
+                    DayLines expired = history.get(next - WINDOWS[w]);
+                    if (expired != null) {
+                        for (int i = 0; i < expired.count; i++) {
+                            adjust(w, expired.productId[i], -expired.quantity[i],
+                                -expired.revenue[i], -expired.cost[i]);
+                        }
+                    }
+                }
+            }
+            history.headMap(day - HISTORY_DAYS, true).clear();
+        }
+        currentDay = day;
+        version++;
+    }
+
+    private void adjust(int w, int productId, long quantity, long revenue, long cost) {
+        ensureCapacity(productId);
+        if (!bulkLoading) {
+            // The sets are ordered by these totals, so take the product out while they change
+            for (int m = 0; m < METRICS; m++) {
+                rankings.get(w * METRICS + m).remove(productId);
+            }
+        }
+        totals[w][QUANTITY][productId] += quantity;
+        totals[w][REVENUE][productId] += revenue;
+        totals[w][COST][productId] += cost;
+        if (!bulkLoading && totals[w][QUANTITY][productId] != 0) {
+            for (int m = 0; m < METRICS; m++) {
+                rankings.get(w * METRICS + m).add(productId);
+            }
+        }
+    }
+
+    private void rebuildRankings() {
+        for (int w = 0; w < WINDOWS.length; w++) {
+            for (int m = 0; m < METRICS; m++) {
+                rankings.get(w * METRICS + m).clear();
+            }
+            long[] quantities = totals[w][QUANTITY];
+            for (int productId = 0; productId < quantities.length; productId++) {
+                if (quantities[productId] != 0) {
+                    for (int m = 0; m < METRICS; m++) {
+                        rankings.get(w * METRICS + m).add(productId);
+                    }
+                }
+            }
+        }
+        version++;
+    }
+
+    private long value(int w, VelocityMetric metric, int productId) {
+        switch (metric) {
+            case QUANTITY:
+                return totals[w][QUANTITY][productId];
+            case REVENUE:
+                return totals[w][REVENUE][productId];
+            default:
+                return totals[w][REVENUE][productId] - totals[w][COST][productId];
+        }
+    }
+
+    private void ensureCapacity(int productId) {
+        int capacity = totals[0][0].length;
+        if (productId < capacity) {
+            return;
+        }
+        int grown = Math.max(capacity * 2, productId + 1);
+        for (long[][] window : totals) {
+            for (int m = 0; m < window.length; m++) {
+                window[m] = Arrays.copyOf(window[m], grown);
+            }
+        }
+    }
+
+    private static int windowIndex(int windowDays) {
+        for (int w = 0; w < WINDOWS.length; w++) {
+            if (WINDOWS[w] == windowDays) {
+                return w;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported window of " + windowDays + " days; use one of "
+            + Arrays.toString(WINDOWS));
+    }
+
+    /**
+     * One product's totals over a window, copied out under the monitor; amounts in paise.
+     */
+    private static class WindowTotals {
+        private final int productId;
+        private final int windowDays;
+        private final long quantity;
+        private final long revenue;
+        private final long cost;
+
+        WindowTotals(int productId, int windowDays, long quantity, long revenue, long cost) {
+            this.productId = productId;
+            this.windowDays = windowDays;
+            this.quantity = quantity;
+            this.revenue = revenue;
+            this.cost = cost;
+        }
+    }
+
+    /**
+     * One day's invoice lines as parallel arrays; amounts in paise.
+     */
+    private static class DayLines {
+        private int count;
+        private int[] productId = new int[64];
+        private long[] quantity = new long[64];
+        private long[] revenue = new long[64];
+        private long[] cost = new long[64];
+
+        void add(int product, long qty, long lineRevenue, long lineCost) {
+            if (count == productId.length) {
+                productId = Arrays.copyOf(productId, count * 2);
+                quantity = Arrays.copyOf(quantity, count * 2);
+                revenue = Arrays.copyOf(revenue, count * 2);
+                cost = Arrays.copyOf(cost, count * 2);
+            }
+            productId[count] = product;
+            quantity[count] = qty;
+            revenue[count] = lineRevenue;
+            cost[count] = lineCost;
+            count++;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.kiranastore.service;
+
+import com.kiranastore.model.DailySales;
+import com.kiranastore.model.Money;
+import com.kiranastore.model.Product;
+import com.kiranastore.model.ProductVelocity;
+import com.kiranastore.model.SalesCubeQuery;
+import com.kiranastore.model.SalesCubeRow;
+import com.kiranastore.model.SalesFilter;
+import com.kiranastore.model.SalesTotals;
+import com.kiranastore.model.VelocityMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Ad-hoc sales analytics over the in-memory {@link SalesColumnStore}: totals for any date
+ * range narrowed by payment method, products or hours, without a database round trip.
+ * Slices by date, category, payment method and hour come from the pre-aggregated
+ * {@link SalesCube}, and best sellers from the {@link ProductVelocityIndex}. All are
+ * built on first use, or ahead of time by {@link #preload()}.
+ *
+ * If the store cannot be loaded the error is only logged: every query returns zero
+ * totals or empty lists, so the Reports view shows "no data" rather than an error.
+ * {@link #isReady()} tells the two apart, and the next query tries the load again.
+ */
+public class SalesAnalyticsService {
+    private static final Logger logger = LoggerFactory.getLogger(SalesAnalyticsService.class);
+
+    private final SalesColumnStore store = SalesColumnStore.getInstance();
+    private final SalesCube cube = SalesCube.getInstance();
+    private final ProductVelocityIndex velocity = ProductVelocityIndex.getInstance();
+    private final ProductService productService = new ProductService();
+
+    /**
+     * Loads the column store and builds the cube and velocity index in the background so
+     * the first report does not wait for them.
+     */
+    public static void preload() {
+        ServiceExecutor.supplyDetached(() -> {
+            SalesAnalyticsService service = new SalesAnalyticsService();
+            return service.ensureCube() && service.ensureVelocity();
+        });
+    }
+
+    /**
+     * Sliding windows, in days, that best sellers and ABC classes can be asked for.
+     */
+    public static List<Integer> getVelocityWindows() {
+        List<Integer> windows = new ArrayList<>();
+        for (int days : ProductVelocityIndex.WINDOWS) {
+            windows.add(days);
+        }
+        return windows;
+    }
+
+    public boolean isReady() {
+        return store.isLoaded();
+    }
+
+    public SalesTotals getTotals(SalesFilter filter) {
+        if (!ensureLoaded()) {
+            return new SalesTotals(Money.ZERO, Money.ZERO, Money.ZERO, 0, 0);
+        }
+        return store.aggregate(filter);
+    }
+
+    /**
+     * Per-day totals, oldest first. Days without matching sales are not included.
+     */
+    public List<DailySales> getDailyTotals(SalesFilter filter) {
+        if (!ensureLoaded()) {
+            return new ArrayList<>();
+        }
+        return store.aggregateByDay(filter);
+    }
+
+    /**
+     * Totals per payment method, for methods with sales in the filter's range.
+     */
+    public Map<String, SalesTotals> getTotalsByPaymentMethod(SalesFilter filter) {
+        Map<String, SalesTotals> byMethod = new LinkedHashMap<>();
+        if (!ensureLoaded()) {
+            return byMethod;
+        }
+        for (String method : store.getPaymentMethods()) {
+            SalesTotals totals = store.aggregate(filter.withPaymentMethod(method));
+            if (totals.getTransactions() > 0) {
+                byMethod.put(method, totals);
+            }
+        }
+        return byMethod;
+    }
+
+    /**
+     * Totals per product category, by category name, for categories with sales in the
+     * filter's range. Lines are matched against the current catalog, so sales of
+     * deleted products are not counted.
+     */
+    public Map<String, SalesTotals> getTotalsByCategory(SalesFilter filter) {
+        Map<String, SalesTotals> byCategory = new TreeMap<>();
+        if (!ensureLoaded()) {
+            return byCategory;
+        }
+        Map<String, Set<Integer>> productsByCategory = new TreeMap<>();
+        for (Product product : productService.getAllProducts()) {
+            String category = product.getCategory() != null ? product.getCategory() : "";
+            productsByCategory.computeIfAbsent(category, c -> new HashSet<>()).add(product.getId());
+        }
+        for (Map.Entry<String, Set<Integer>> entry : productsByCategory.entrySet()) {
+            SalesTotals totals = store.aggregate(filter.withProducts(entry.getValue()));
+            if (totals.getTransactions() > 0) {
+                byCategory.put(entry.getKey(), totals);
+            }
+        }
+        return byCategory;
+    }
+
+    public SalesTotals getTotals(LocalDate startDate, LocalDate endDate) {
+        return getTotals(SalesFilter.between(startDate, endDate));
+    }
+
+    /**
+     * One row per member of the query's group-by dimension; see {@link SalesCube#slice}.
+     */
+    public List<SalesCubeRow> getCubeSlice(SalesCubeQuery query) {
+        if (!ensureCube()) {
+            return new ArrayList<>();
+        }
+        return cube.slice(query);
+    }
+
+    /**
+     * The {@code limit} best-selling products over the last {@code windowDays} days, today
+     * included, ranked by the metric. Their ABC class is left null; it comes from
+     * {@link #getAbcClassification}.
+     *
+     * @param windowDays one of {@link #getVelocityWindows()}
+     */
+    public List<ProductVelocity> getTopProducts(VelocityMetric metric, int windowDays, int limit) {
+        if (!ensureVelocity()) {
+            return new ArrayList<>();
+        }
+        return velocity.top(metric, windowDays, limit);
+    }
+
+    /**
+     * The whole catalog classified A, B or C by revenue over the window, highest first.
+     *
+     * @param windowDays one of {@link #getVelocityWindows()}
+     */
+    public List<ProductVelocity> getAbcClassification(int windowDays) {
+        if (!ensureVelocity()) {
+            return new ArrayList<>();
+        }
+        return velocity.classifyCatalog(windowDays);
+    }
+
+    private boolean ensureLoaded() {
+        if (store.isLoaded()) {
+            return true;
+        }
+        try {
+            store.load();
+            return true;
+        } catch (SQLException e) {
+            logger.error("Error loading the sales column store", e);
+            return false;
+        }
+    }
+
+    private boolean ensureCube() {
+        if (cube.isBuilt()) {
+            return true;
+        }
+        if (!ensureLoaded()) {
+            return false;
+        }
+        cube.build(store);
+        return true;
+    }
+
+    private boolean ensureVelocity() {
+        if (velocity.isBuilt()) {
+            return true;
+        }
+        if (!ensureLoaded()) {
+            return false;
+        }
+        velocity.build(store);
+        return true;
+    }
+
+    // Async variants - run on virtual threads via ServiceExecutor
+
+    public CompletableFuture<SalesTotals> getTotalsAsync(SalesFilter filter) {
+        return ServiceExecutor.supply(() -> getTotals(filter));
+    }
+
+    public CompletableFuture<List<DailySales>> getDailyTotalsAsync(SalesFilter filter) {
+        return ServiceExecutor.supply(() -> getDailyTotals(filter));
+    }
+
+    public CompletableFuture<Map<String, SalesTotals>> getTotalsByPaymentMethodAsync(SalesFilter filter) {
+        return ServiceExecutor.supply(() -> getTotalsByPaymentMethod(filter));
+    }
+
+    public CompletableFuture<Map<String, SalesTotals>> getTotalsByCategoryAsync(SalesFilter filter) {
+        return ServiceExecutor.supply(() -> getTotalsByCategory(filter));
+    }
+
+    public CompletableFuture<List<SalesCubeRow>> getCubeSliceAsync(SalesCubeQuery query) {
+        return ServiceExecutor.supply(() -> getCubeSlice(query));
+    }
+
+    public CompletableFuture<List<ProductVelocity>> getTopProductsAsync(VelocityMetric metric, int windowDays, int limit) {
+        return ServiceExecutor.supply(() -> getTopProducts(metric, windowDays, limit));
+    }
+
+    public CompletableFuture<List<ProductVelocity>> getAbcClassificationAsync(int windowDays) {
+        return ServiceExecutor.supply(() -> getAbcClassification(windowDays));
+    }
+}
@@ -0,0 +1,541 @@
+package com.kiranastore.service;
+
+import com.kiranastore.dao.InvoiceDAO;
+import com.kiranastore.model.DailySales;
+import com.kiranastore.model.Invoice;
+import com.kiranastore.model.InvoiceItem;
+import com.kiranastore.model.Money;
+import com.kiranastore.model.SalesFilter;
+import com.kiranastore.model.SalesTotals;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * Every invoice line held in memory as primitive columns, for analytics that would
+ * otherwise scan invoices and invoice_items row by row.
+ *
+ * Lines live in fixed-size segments of parallel arrays (day, minute, product, quantity,
+ * price, cost, payment method, plus the invoice ID and total). Segments fill in invoice
+ * order and an invoice is never split across two, so its lines are contiguous. Each
+ * segment records its first and last day; queries skip segments outside the requested
+ * range and scan the others in parallel with plain loops over the arrays.
+ *
+ * Loaded from the database once, then kept current by {@link #append} after each commit.
+ * Only the appending thread writes; a segment's row count is published through a
+ * volatile, so readers never lock. Pre-aggregated views subscribe with
+ * {@link #subscribe} and are fed every invoice as it is added.
+ */
+class SalesColumnStore {
+    private static final Logger logger = LoggerFactory.getLogger(SalesColumnStore.class);
+    private static final SalesColumnStore INSTANCE = new SalesColumnStore();
+    private static final int SEGMENT_ROWS = 16_384;
+    private static final int ANY_PAYMENT = -1;
+    private static final int NO_PAYMENT = -2; // a method never seen, so nothing matches
+
+    private final InvoiceDAO invoiceDAO = new InvoiceDAO();
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final BitSet invoiceIds = new BitSet();                 // guarded by this
+    private final Map<String, Byte> paymentCodes = new HashMap<>(); // guarded by this
+    private final List<InvoiceListener> listeners = new CopyOnWriteArrayList<>(); // added to under this
+    private volatile String[] paymentMethods = new String[0];
+    private volatile boolean loaded;
+    // Invoices committed while a load is scanning, added once it finishes
+    private final Object pendingLock = new Object();
+    private final List<Invoice> pendingAppends = new ArrayList<>(); // guarded by pendingLock
+    private boolean loading;                                       // guarded by pendingLock
+
+    static SalesColumnStore getInstance() {
+        return INSTANCE;
+    }
+
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Reads every invoice line from the database. Does nothing once loaded; after a failed
+     * load, the next call starts again from empty.
+     */
+    synchronized void load() throws SQLException {
+        if (loaded) {
+            return;
+        }
+        long start = System.nanoTime();
+        // Whatever a failed load got through; addInvoice does not check for repeats
+        segments.clear();
+        invoiceIds.clear();
+        paymentCodes.clear();
+        paymentMethods = new String[0];
+        synchronized (pendingLock) {
+            loading = true;
+        }
+        List<Invoice> missed;
+        boolean scanned = false;
+        try {
+            InvoiceLines current = new InvoiceLines();
+            invoiceDAO.scanInvoiceLines((invoiceId, invoiceDate, paymentMethod, invoiceTotal,
+                                         productId, quantity, unitPrice, unitCost) -> {
+                // Lines arrive grouped by invoice; each invoice is added once all its lines are in
+                if (invoiceId != current.invoiceId) {
+                    addInvoice(current);
+                    current.start(invoiceId, invoiceDate, paymentMethod, invoiceTotal);
+                }
+                current.add(productId, quantity, unitPrice, unitCost);
+            });
+            addInvoice(current);
+            scanned = true;
+        } finally {
+            synchronized (pendingLock) {
+                missed = new ArrayList<>(pendingAppends);
+                pendingAppends.clear();
+                loading = false;
+                // Appends from here on take the store lock, so they wait for the ones below
+                loaded = scanned;
+            }
+        }
+        // Committed during the scan, which may or may not have read them; invoiceIds skips repeats
+        for (Invoice invoice : missed) {
+            appendLines(invoice);
+        }
+        logger.info("Loaded {} invoice lines into the sales column store in {} ms",
+            getLineCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Adds a committed invoice's lines. Ignored before a load starts, since the load reads
+     * it from the database, and for invoices the store already holds; held back while a
+     * load is scanning, since the scan may already be past it.
+     */
+    void append(Invoice invoice) {
+        if (invoice.getId() <= 0) {
+            return;
+        }
+        if (!loaded) {
+            synchronized (pendingLock) {
+                if (!loaded) {
+                    if (loading) {
+                        pendingAppends.add(invoice);
+                    }
+                    return;
+                }
+            }
+        }
+        // Before taking the lock, so listeners can look things up without blocking readers
+        for (InvoiceListener listener : listeners) {
+            listener.prepare(invoice);
+        }
+        appendLines(invoice);
+    }
+
+    private synchronized void appendLines(Invoice invoice) {
+        if (invoiceIds.get(invoice.getId())) {
+            return;
+        }
+        InvoiceLines lines = new InvoiceLines();
+        lines.start(invoice.getId(), invoice.getInvoiceDate(), invoice.getPaymentMethod(),
+            invoice.getTotalAmount().getPaise());
+        for (InvoiceItem item : invoice.getItems()) {
+            lines.add(item.getProductId(), item.getQuantity(),
+                item.getUnitPrice().getPaise(), item.getUnitCost().getPaise());
+        }
+        addInvoice(lines);
+    }
+
+    private void addInvoice(InvoiceLines lines) {
+        if (lines.count == 0) {
+            return;
+        }
+        invoiceIds.set(lines.invoiceId);
+        Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        // Keep an invoice's lines in one segment; an oversized invoice gets a segment of its own
+        if (segment == null || segment.pending + lines.count > segment.capacity) {
+            segment = new Segment(Math.max(SEGMENT_ROWS, lines.count));
+            segments.add(segment);
+        }
+        int epochDay = (int) lines.invoiceDate.toLocalDate().toEpochDay();
+        short minuteOfDay = (short) (lines.invoiceDate.getHour() * 60 + lines.invoiceDate.getMinute());
+        byte code = paymentCode(lines.paymentMethod);
+        for (int i = 0; i < lines.count; i++) {
+            segment.add(lines.invoiceId, epochDay, minuteOfDay, code, lines.invoiceTotal,
+                lines.productId[i], lines.quantity[i], lines.unitPrice[i], lines.unitCost[i]);
+        }
+        segment.publish();
+        for (InvoiceListener listener : listeners) {
+            listener.invoiceAdded(lines);
+        }
+    }
+
+    /**
+     * Feeds the listener every invoice already held, then each one added from now on.
+     * Listeners are called with the store locked and must not keep the passed lines.
+     */
+    synchronized void subscribe(InvoiceListener listener) {
+        InvoiceLines lines = new InvoiceLines();
+        String[] methods = paymentMethods;
+        for (Segment segment : segments) {
+            int rows = segment.size;
+            for (int i = 0; i < rows; i++) {
+                if (segment.invoiceId[i] != lines.invoiceId) {
+                    if (lines.count > 0) {
+                        listener.invoiceAdded(lines);
+                    }
+                    int minuteOfDay = segment.minute[i];
+                    lines.start(segment.invoiceId[i],
+                        LocalDate.ofEpochDay(segment.day[i]).atTime(minuteOfDay / 60, minuteOfDay % 60),
+                        methods[segment.payment[i]], segment.invoiceTotal[i]);
+                }
+                lines.add(segment.productId[i], segment.quantity[i], segment.unitPrice[i], segment.unitCost[i]);
+            }
+        }
+        if (lines.count > 0) {
+            listener.invoiceAdded(lines);
+        }
+        listeners.add(listener);
+    }
+
+    int getLineCount() {
+        int count = 0;
+        for (Segment segment : segments) {
+            count += segment.size;
+        }
+        return count;
+    }
+
+    /**
+     * Totals over every line the filter matches.
+     */
+    SalesTotals aggregate(SalesFilter filter) {
+        Query query = new Query(filter, 1);
+        Partial result = scan(query).reduce(Partial::merge).orElseGet(() -> new Partial(1));
+        return result.toTotals(0);
+    }
+
+    /**
+     * Per-day totals over the lines the filter matches, oldest first. Days without
+     * matching lines are not included.
+     */
+    List<DailySales> aggregateByDay(SalesFilter filter) {
+        int days = (int) (filter.getEndDate().toEpochDay() - filter.getStartDate().toEpochDay()) + 1;
+        if (days <= 0) {
+            return new ArrayList<>();
+        }
+        Query query = new Query(filter, days);
+        Partial result = scan(query).reduce(Partial::merge).orElseGet(() -> new Partial(days));
+
+        List<DailySales> totals = new ArrayList<>();
+        for (int day = 0; day < days; day++) {
+            if (result.transactions[day] > 0) {
+                SalesTotals dayTotals = result.toTotals(day);
+                totals.add(new DailySales(filter.getStartDate().plusDays(day),
+                    dayTotals.getSales(), dayTotals.getProfit(), dayTotals.getTransactions()));
+            }
+        }
+        return totals;
+    }
+
+    private Stream<Partial> scan(Query query) {
+        List<Segment> candidates = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (segment.size > 0 && segment.lastDay >= query.fromDay && segment.firstDay <= query.toDay) {
+                candidates.add(segment);
+            }
+        }
+        Stream<Segment> stream = candidates.size() > 1 ? candidates.parallelStream() : candidates.stream();
+        return stream.map(segment -> segment.scan(query));
+    }
+
+    /**
+     * Payment methods seen so far, in the order they first appeared.
+     */
+    List<String> getPaymentMethods() {
+        return List.of(paymentMethods);
+    }
+
+    private byte paymentCode(String paymentMethod) {
+        String key = paymentMethod != null ? paymentMethod : "";
+        Byte code = paymentCodes.get(key);
+        if (code == null) {
+            if (paymentCodes.size() == Byte.MAX_VALUE) {
+                throw new IllegalStateException("Too many payment methods for the sales column store");
+            }
+            code = (byte) paymentCodes.size();
+            paymentCodes.put(key, code);
+            String[] methods = Arrays.copyOf(paymentMethods, code + 1);
+            methods[code] = key;
+            paymentMethods = methods;
+        }
+        return code;
+    }
+
+    private int lookupPaymentCode(String paymentMethod) {
+        String[] methods = paymentMethods;
+        for (int i = 0; i < methods.length; i++) {
+            if (methods[i].equals(paymentMethod)) {
+                return i;
+            }
+        }
+        return NO_PAYMENT;
+    }
+
+    /**
+     * A filter translated to the store's primitive encodings.
+     */
+    private class Query {
+        private final int fromDay;
+        private final int toDay;
+        private final int payment;        // ANY_PAYMENT, NO_PAYMENT or a code
+        private final boolean[] products; // null for any
+        private final int fromMinute;
+        private final int toMinute;
+        private final int days;
+
+        Query(SalesFilter filter, int days) {
+            this.fromDay = (int) filter.getStartDate().toEpochDay();
+            this.toDay = (int) filter.getEndDate().toEpochDay();
+            this.payment = filter.getPaymentMethod() != null ? lookupPaymentCode(filter.getPaymentMethod()) : ANY_PAYMENT;
+            if (filter.getProductIds() != null) {
+                int maxId = 0;
+                for (int id : filter.getProductIds()) {
+                    maxId = Math.max(maxId, id);
+                }
+                products = new boolean[maxId + 1];
+                for (int id : filter.getProductIds()) {
+                    if (id >= 0) {
+                        products[id] = true;
+                    }
+                }
+            } else {
+                products = null;
+            }
+            this.fromMinute = filter.getFromHour() * 60;
+            this.toMinute = filter.getToHourExclusive() * 60;
+            this.days = days;
+        }
+    }
+
+    /**
+     * Running totals from one or more segments, one slot per day when grouping by day.
+     */
+    private static class Partial {
+        private final long[] sales;
+        private final long[] revenue;
+        private final long[] cost;
+        private final long[] quantity;
+        private final int[] transactions;
+
+        Partial(int slots) {
+            sales = new long[slots];
+            revenue = new long[slots];
+            cost = new long[slots];
+            quantity = new long[slots];
+            transactions = new int[slots];
+        }
+
+        Partial merge(Partial other) {
+            for (int i = 0; i < sales.length; i++) {
+                sales[i] += other.sales[i];
+                revenue[i] += other.revenue[i];
+                cost[i] += other.cost[i];
+                quantity[i] += other.quantity[i];
+                transactions[i] += other.transactions[i];
+            }
+            return this;
+        }
+
+        SalesTotals toTotals(int slot) {
+            return new SalesTotals(Money.ofPaise(sales[slot]), Money.ofPaise(revenue[slot]),
+                Money.ofPaise(revenue[slot] - cost[slot]), quantity[slot], transactions[slot]);
+        }
+    }
+
+    /**
+     * Receives each invoice added to the store; see {@link #subscribe}.
+     */
+    interface InvoiceListener {
+        /**
+         * Called with no lock held before a committed invoice is added, to fetch anything
+         * {@link #invoiceAdded} will need; invoiceAdded itself must not go to the database.
+         */
+        default void prepare(Invoice invoice) {
+        }
+
+        void invoiceAdded(InvoiceLines invoice);
+    }
+
+    /**
+     * One invoice's lines, gathered before they are added to a segment. Amounts in paise.
+     */
+    static class InvoiceLines {
+        private int invoiceId = -1;
+        private LocalDateTime invoiceDate;
+        private String paymentMethod;
+        private long invoiceTotal;
+        private int count;
+        private int[] productId = new int[8];
+        private int[] quantity = new int[8];
+        private long[] unitPrice = new long[8];
+        private long[] unitCost = new long[8];
+
+        void start(int invoiceId, LocalDateTime invoiceDate, String paymentMethod, long invoiceTotal) {
+            this.invoiceId = invoiceId;
+            this.invoiceDate = invoiceDate;
+            this.paymentMethod = paymentMethod;
+            this.invoiceTotal = invoiceTotal;
+            this.count = 0;
+        }
+
+        void add(int product, int qty, long price, long cost) {
+            if (count == productId.length) {
+                productId = Arrays.copyOf(productId, count * 2);
+                quantity = Arrays.copyOf(quantity, count * 2);
+                unitPrice = Arrays.copyOf(unitPrice, count * 2);
+                unitCost = Arrays.copyOf(unitCost, count * 2);
+            }
+            productId[count] = product;
+            quantity[count] = qty;
+            unitPrice[count] = price;
+            unitCost[count] = cost;
+            count++;
+        }
+
+        int getInvoiceId() {
+            return invoiceId;
+        }
+
+        LocalDateTime getInvoiceDate() {
+            return invoiceDate;
+        }
+
+        String getPaymentMethod() {
+            return paymentMethod;
+        }
+
+        long getInvoiceTotal() {
+            return invoiceTotal;
+        }
+
+        int getLineCount() {
+            return count;
+        }
+
+        int getProductId(int line) {
+            return productId[line];
+        }
+
+        int getQuantity(int line) {
+            return quantity[line];
+        }
+
+        long getUnitPrice(int line) {
+            return unitPrice[line];
+        }
+
+        long getUnitCost(int line) {
+            return unitCost[line];
+        }
+    }
+
+    private static class Segment {
+        private final int capacity;
+        private final int[] invoiceId;
+        private final int[] day;
+        private final short[] minute;
+        private final int[] productId;
+        private final int[] quantity;
+        private final long[] unitPrice;
+        private final long[] unitCost;
+        private final long[] invoiceTotal;
+        private final byte[] payment;
+        private int pending;          // rows written; only touched under the store lock
+        private volatile int size;    // rows visible to readers
+        private volatile int firstDay = Integer.MAX_VALUE;
+        private volatile int lastDay = Integer.MIN_VALUE;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+            invoiceId = new int[capacity];
+            day = new int[capacity];
+            minute = new short[capacity];
+            productId = new int[capacity];
+            quantity = new int[capacity];
+            unitPrice = new long[capacity];
+            unitCost = new long[capacity];
+            invoiceTotal = new long[capacity];
+            payment = new byte[capacity];
+        }
+
+        void add(int invoice, int epochDay, short minuteOfDay, byte paymentCode, long total,
+                 int product, int qty, long price, long cost) {
+            int row = pending++;
+            invoiceId[row] = invoice;
+            day[row] = epochDay;
+            minute[row] = minuteOfDay;
+            productId[row] = product;
+            quantity[row] = qty;
+            unitPrice[row] = price;
+            unitCost[row] = cost;
+            invoiceTotal[row] = total;
+            payment[row] = paymentCode;
+            if (epochDay < firstDay) {
+                firstDay = epochDay;
+            }
+            if (epochDay > lastDay) {
+                lastDay = epochDay;
+            }
+        }
+
+        void publish() {
+            size = pending;
+        }
+
+        Partial scan(Query q) {
+            Partial partial = new Partial(q.days);
+            int rows = size;
+            boolean byDay = q.days > 1;
+            int lastCounted = -1;
+            for (int i = 0; i < rows; i++) {
+                int d = day[i];
+                if (d < q.fromDay || d > q.toDay) {
+                    continue;
+                }
+                if (q.payment != ANY_PAYMENT && payment[i] != q.payment) {
+                    continue;
+                }
+                if (q.products != null) {
+                    int p = productId[i];
+                    if (p >= q.products.length || !q.products[p]) {
+                        continue;
+                    }
+                }
+                int m = minute[i];
+                if (m < q.fromMinute || m >= q.toMinute) {
+                    continue;
+                }
+                int slot = byDay ? d - q.fromDay : 0;
+                long qty = quantity[i];
+                partial.revenue[slot] += unitPrice[i] * qty;
+                partial.cost[slot] += unitCost[i] * qty;
+                partial.quantity[slot] += qty;
+                // Lines of an invoice are contiguous, so count it and its total once
+                if (invoiceId[i] != lastCounted) {
+                    lastCounted = invoiceId[i];
+                    partial.sales[slot] += invoiceTotal[i];
+                    partial.transactions[slot]++;
+                }
+            }
+            return partial;
+        }
+    }
+}
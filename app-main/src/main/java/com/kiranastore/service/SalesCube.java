@@ -0,0 +1,293 @@
+package com.kiranastore.service;
+
+import com.kiranastore.model.Invoice;
+import com.kiranastore.model.InvoiceItem;
+import com.kiranastore.model.Money;
+import com.kiranastore.model.Product;
+import com.kiranastore.model.SalesCubeQuery;
+import com.kiranastore.model.SalesCubeRow;
+import com.kiranastore.model.SalesDimension;
+import com.kiranastore.model.SalesTotals;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sales pre-aggregated by day, product category, payment method and hour of day. A
+ * slice over a year reads at most a few cells per day and hour instead of every line.
+ *
+ * Each cell holds sales, revenue, cost, quantity and an invoice count. An invoice's total
+ * is shared out over its lines in proportion to their amounts, so category sales add up
+ * exactly to the invoice totals. An invoice with lines in two categories counts once in
+ * each, so every (day, payment method, hour) also has an all-categories cell, which is
+ * what slices not split by category read.
+ *
+ * Fed by {@link SalesColumnStore#subscribe}. Lines go under their product's category as
+ * it was when the cube first saw the product; a recategorised product keeps its history.
+ * Categories come from a catalog snapshot taken at build time, topped up for new products
+ * in {@link #prepare}, so nothing is looked up while the store and cube are locked.
+ */
+class SalesCube implements SalesColumnStore.InvoiceListener {
+    private static final Logger logger = LoggerFactory.getLogger(SalesCube.class);
+    private static final SalesCube INSTANCE = new SalesCube();
+    private static final int ALL_CATEGORIES = 0;
+    private static final int SALES = 0;
+    private static final int REVENUE = 1;
+    private static final int COST = 2;
+    private static final int QUANTITY = 3;
+    private static final int TRANSACTIONS = 4;
+    private static final int MEASURES = 5;
+
+    private final ProductService productService = new ProductService();
+    private final Object buildLock = new Object();
+    // Cells per epoch day, keyed by category << 16 | payment method << 8 | hour
+    private final TreeMap<Integer, Map<Integer, long[]>> days = new TreeMap<>(); // guarded by this
+    private final Map<String, Integer> categoryCodes = new HashMap<>();           // guarded by this
+    private final List<String> categories = new ArrayList<>();                    // guarded by this
+    private final Map<String, Integer> paymentCodes = new HashMap<>();            // guarded by this
+    private final List<String> paymentMethods = new ArrayList<>();                // guarded by this
+    private final Map<Integer, Integer> productCategories = new HashMap<>();      // guarded by this
+    private final Map<Integer, String> categoryNames = new ConcurrentHashMap<>(); // product ID -> category
+    private volatile boolean built;
+
+    private SalesCube() {
+        categories.add(null); // code 0 is ALL_CATEGORIES
+    }
+
+    static SalesCube getInstance() {
+        return INSTANCE;
+    }
+
+    boolean isBuilt() {
+        return built;
+    }
+
+    /**
+     * Fills the cube from the store and keeps it current from then on. The store must
+     * be loaded. Does nothing once built.
+     */
+    void build(SalesColumnStore store) {
+        // Not this cube's monitor: the store calls invoiceAdded with its own lock held
+        synchronized (buildLock) {
+            if (built) {
+                return;
+            }
+            long start = System.nanoTime();
+            for (Product product : productService.getAllProducts()) {
+                categoryNames.putIfAbsent(product.getId(), categoryName(product));
+            }
+            store.subscribe(this);
+            built = true;
+            logger.info("Built the sales cube with {} days in {} ms",
+                getDayCount(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    @Override
+    public void prepare(Invoice invoice) {
+        for (InvoiceItem item : invoice.getItems()) {
+            if (!categoryNames.containsKey(item.getProductId())) {
+                categoryNames.putIfAbsent(item.getProductId(),
+                    categoryName(productService.getProductById(item.getProductId())));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void invoiceAdded(SalesColumnStore.InvoiceLines invoice) {
+        int lineCount = invoice.getLineCount();
+        int day = (int) invoice.getInvoiceDate().toLocalDate().toEpochDay();
+        int hour = invoice.getInvoiceDate().getHour();
+        int payment = code(paymentCodes, paymentMethods, invoice.getPaymentMethod());
+        Map<Integer, long[]> cells = days.computeIfAbsent(day, d -> new HashMap<>());
+
+        long subtotal = 0;
+        for (int i = 0; i < lineCount; i++) {
+            subtotal += invoice.getUnitPrice(i) * invoice.getQuantity(i);
+        }
+
+        long total = invoice.getInvoiceTotal();
+        long allocated = 0;
+        long cost = 0;
+        long quantity = 0;
+        int[] counted = new int[lineCount];
+        int countedSize = 0;
+        for (int i = 0; i < lineCount; i++) {
+            long lineRevenue = invoice.getUnitPrice(i) * invoice.getQuantity(i);
+            long lineCost = invoice.getUnitCost(i) * invoice.getQuantity(i);
+            // The last line takes the rounding remainder so the shares sum to the total
+            long lineSales = i == lineCount - 1 ? total - allocated
+                : subtotal == 0 ? 0 : Math.multiplyExact(total, lineRevenue) / subtotal;
+            allocated += lineSales;
+            cost += lineCost;
+            quantity += invoice.getQuantity(i);
+
+            int category = categoryOf(invoice.getProductId(i));
+            long[] cell = cells.computeIfAbsent(key(category, payment, hour), k -> new long[MEASURES]);
+            cell[SALES] += lineSales;
+            cell[REVENUE] += lineRevenue;
+            cell[COST] += lineCost;
+            cell[QUANTITY] += invoice.getQuantity(i);
+            if (!contains(counted, countedSize, category)) {
+                counted[countedSize++] = category;
+                cell[TRANSACTIONS]++;
+            }
+        }
+
+        long[] all = cells.computeIfAbsent(key(ALL_CATEGORIES, payment, hour), k -> new long[MEASURES]);
+        all[SALES] += total;
+        all[REVENUE] += subtotal;
+        all[COST] += cost;
+        all[QUANTITY] += quantity;
+        all[TRANSACTIONS]++;
+    }
+
+    /**
+     * Totals for the query's slice, one row per member of its group-by dimension. Dates
+     * and hours come in order, categories and payment methods by sales, highest first.
+     */
+    synchronized List<SalesCubeRow> slice(SalesCubeQuery query) {
+        List<SalesCubeRow> rows = new ArrayList<>();
+        int fixedCategory = query.getCategory() != null ? categoryCodes.getOrDefault(query.getCategory(), -1) : ALL_CATEGORIES;
+        int fixedPayment = query.getPaymentMethod() != null ? paymentCodes.getOrDefault(query.getPaymentMethod(), -1) : -2;
+        if (fixedCategory == -1 || fixedPayment == -1) {
+            return rows; // a member the cube has never seen
+        }
+        SalesDimension groupBy = query.getGroupBy();
+        boolean byCategory = groupBy == SalesDimension.CATEGORY || fixedCategory != ALL_CATEGORIES;
+        int fixedHour = query.getHour() != null ? query.getHour() : -1;
+
+        Map<Integer, long[]> groups = new HashMap<>();
+        int fromDay = (int) query.getStartDate().toEpochDay();
+        int toDay = (int) query.getEndDate().toEpochDay();
+        if (fromDay > toDay) {
+            return rows;
+        }
+        for (Map.Entry<Integer, Map<Integer, long[]>> day : days.subMap(fromDay, true, toDay, true).entrySet()) {
+            int dateGroup = groupBy == SalesDimension.DATE
+                ? (int) query.getBucket().startOf(LocalDate.ofEpochDay(day.getKey())).toEpochDay() : 0;
+            for (Map.Entry<Integer, long[]> cell : day.getValue().entrySet()) {
+                int key = cell.getKey();
+                int category = key >>> 16;
+                int payment = (key >>> 8) & 0xFF;
+                int hour = key & 0xFF;
+                if (byCategory) {
+                    if (category == ALL_CATEGORIES || (fixedCategory != ALL_CATEGORIES && category != fixedCategory)) {
+                        continue;
+                    }
+                } else if (category != ALL_CATEGORIES) {
+                    continue;
+                }
+                if ((fixedPayment >= 0 && payment != fixedPayment) || (fixedHour >= 0 && hour != fixedHour)) {
+                    continue;
+                }
+
+                int group;
+                if (groupBy == null) {
+                    group = 0;
+                } else {
+                    switch (groupBy) {
+                        case DATE:
+                            group = dateGroup;
+                            break;
+                        case CATEGORY:
+                            group = category;
+                            break;
+                        case PAYMENT_METHOD:
+                            group = payment;
+                            break;
+                        default:
+                            group = hour;
+                            break;
+                    }
+                }
+                long[] sums = groups.computeIfAbsent(group, g -> new long[MEASURES]);
+                long[] measures = cell.getValue();
+                for (int m = 0; m < MEASURES; m++) {
+                    sums[m] += measures[m];
+                }
+            }
+        }
+
+        for (Map.Entry<Integer, long[]> group : groups.entrySet()) {
+            long[] sums = group.getValue();
+            SalesTotals totals = new SalesTotals(Money.ofPaise(sums[SALES]), Money.ofPaise(sums[REVENUE]),
+                Money.ofPaise(sums[REVENUE] - sums[COST]), sums[QUANTITY], (int) sums[TRANSACTIONS]);
+            rows.add(new SalesCubeRow(groupBy, member(groupBy, group.getKey()), totals));
+        }
+        if (groupBy == SalesDimension.DATE || groupBy == SalesDimension.HOUR) {
+            // ISO dates sort as text; hours are compared as numbers
+            rows.sort(groupBy == SalesDimension.DATE ? Comparator.comparing(SalesCubeRow::getMember)
+                : Comparator.comparingInt(row -> Integer.parseInt(row.getMember())));
+        } else {
+            rows.sort(Comparator.comparing(SalesCubeRow::getSales).reversed());
+        }
+        return rows;
+    }
+
+    private String member(SalesDimension dimension, int group) {
+        if (dimension == null) {
+            return "";
+        }
+        switch (dimension) {
+            case DATE:
+                return LocalDate.ofEpochDay(group).toString();
+            case CATEGORY:
+                return categories.get(group);
+            case PAYMENT_METHOD:
+                return paymentMethods.get(group);
+            default:
+                return String.valueOf(group);
+        }
+    }
+
+    private int categoryOf(int productId) {
+        Integer category = productCategories.get(productId);
+        if (category == null) {
+            // Products missing from the snapshot were deleted before the cube was built
+            category = code(categoryCodes, categories, categoryNames.getOrDefault(productId, ""));
+            productCategories.put(productId, category);
+        }
+        return category;
+    }
+
+    private static String categoryName(Product product) {
+        return product != null && product.getCategory() != null ? product.getCategory() : "";
+    }
+
+    private synchronized int getDayCount() {
+        return days.size();
+    }
+
+    private static int code(Map<String, Integer> codes, List<String> names, String name) {
+        String key = name != null ? name : "";
+        Integer code = codes.get(key);
+        if (code == null) {
+            code = names.size();
+            codes.put(key, code);
+            names.add(key);
+        }
+        return code;
+    }
+
+    private static int key(int category, int payment, int hour) {
+        return category << 16 | payment << 8 | hour;
+    }
+
+    private static boolean contains(int[] values, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
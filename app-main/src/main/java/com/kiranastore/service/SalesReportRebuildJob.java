@@ -0,0 +1,78 @@
+package com.kiranastore.service;
+
+import com.kiranastore.dao.SalesReportDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Regenerates sales_reports for a date range from the invoices, one month at a time.
+ * Each month is summed and written by the database in a single transaction, so a
+ * cancelled or failed run leaves every month either fully rebuilt or untouched, and
+ * invoices committed meanwhile are either counted by the rebuild or added after it.
+ */
+public class SalesReportRebuildJob {
+    private static final Logger logger = LoggerFactory.getLogger(SalesReportRebuildJob.class);
+
+    public interface ProgressListener {
+        void onProgress(long daysCompleted, long totalDays, LocalDate completedThrough);
+    }
+
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final SalesReportDAO salesReportDAO = new SalesReportDAO();
+    private volatile boolean cancelled;
+
+    public SalesReportRebuildJob(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Runs the rebuild on the calling thread.
+     *
+     * @return the number of days with sales that were written
+     */
+    public int run(ProgressListener listener) throws SQLException {
+        long totalDays = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        long daysCompleted = 0;
+        int daysWritten = 0;
+        long start = System.currentTimeMillis();
+
+        LocalDate chunkStart = startDate;
+        while (!chunkStart.isAfter(endDate)) {
+            if (cancelled) {
+                logger.info("Sales report rebuild cancelled after {} of {} days", daysCompleted, totalDays);
+                return daysWritten;
+            }
+            LocalDate nextMonth = chunkStart.withDayOfMonth(1).plusMonths(1);
+            LocalDate chunkEnd = nextMonth.isAfter(endDate) ? endDate : nextMonth.minusDays(1);
+
+            daysWritten += salesReportDAO.replaceDailyReports(chunkStart, chunkEnd.plusDays(1));
+
+            daysCompleted += ChronoUnit.DAYS.between(chunkStart, chunkEnd) + 1;
+            if (listener != null) {
+                listener.onProgress(daysCompleted, totalDays, chunkEnd);
+            }
+            chunkStart = chunkEnd.plusDays(1);
+        }
+
+        logger.info("Rebuilt sales reports {} to {} ({} days with sales) in {} ms",
+            startDate, endDate, daysWritten, System.currentTimeMillis() - start);
+        return daysWritten;
+    }
+}
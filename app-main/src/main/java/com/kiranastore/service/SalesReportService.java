@@ -1,25 +1,34 @@
 package com.kiranastore.service;
 
 import com.kiranastore.dao.SalesReportDAO;
+import com.kiranastore.model.InvoiceAggregate;
+import com.kiranastore.model.Money;
+import com.kiranastore.model.PeriodSummary;
 import com.kiranastore.model.SalesReport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDate;
+import java.time.Year;
 import java.time.YearMonth;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class SalesReportService {
     private static final Logger logger = LoggerFactory.getLogger(SalesReportService.class);
     private final SalesReportDAO salesReportDAO = new SalesReportDAO();
     private final InvoiceService invoiceService = new InvoiceService();
 
+    /**
+     * Recomputes a day's report from its invoices. Invoice commits already keep the
+     * row current, so this is only needed to repair a day.
+     */
     public void generateDailySalesReport(LocalDate date) {
-        double dailySales = invoiceService.getDailySales(date);
-        double dailyProfit = invoiceService.getDailyProfit(date);
-        int transactionCount = invoiceService.getDailyTransactionCount(date);
+        InvoiceAggregate daily = invoiceService.getInvoiceAggregate(date, date, null);
+        Money dailyProfit = invoiceService.getDailyProfit(date);
 
-        salesReportDAO.addOrUpdateDailySalesReport(date, dailySales, dailyProfit, transactionCount);
+        salesReportDAO.addOrUpdateDailySalesReport(date, daily.getTotalAmount(), dailyProfit, daily.getInvoiceCount());
         logger.info("Daily sales report generated for: {}", date);
     }
 
@@ -48,59 +57,71 @@ public class SalesReportService {
         return salesReportDAO.getAllSalesReports();
     }
 
-    public double getTotalSalesForMonth(YearMonth yearMonth) {
-        return getMonthlyReports(yearMonth.getYear(), yearMonth.getMonthValue()).stream()
-            .mapToDouble(SalesReport::getTotalSales)
-            .sum();
+    /**
+     * Sales, profit and transaction totals for a month from the maintained rollups.
+     */
+    public PeriodSummary getPeriodSummary(YearMonth yearMonth) {
+        return salesReportDAO.getMonthSummary(yearMonth);
     }
 
-    public double getTotalProfitForMonth(YearMonth yearMonth) {
-        return getMonthlyReports(yearMonth.getYear(), yearMonth.getMonthValue()).stream()
-            .mapToDouble(SalesReport::getTotalProfit)
-            .sum();
+    public PeriodSummary getPeriodSummary(Year year) {
+        return salesReportDAO.getYearSummary(year);
     }
 
-    public double getProfitMarginForMonth(YearMonth yearMonth) {
-        double totalSales = getTotalSalesForMonth(yearMonth);
-        double totalProfit = getTotalProfitForMonth(yearMonth);
-        if (totalSales == 0) return 0;
-        return (totalProfit / totalSales) * 100;
+    public Money getTotalSalesForMonth(YearMonth yearMonth) {
+        return getPeriodSummary(yearMonth).getTotalSales();
     }
 
-    public double getMonthlyAverageTransactionValue(YearMonth yearMonth) {
-        List<SalesReport> reports = getMonthlyReports(yearMonth.getYear(), yearMonth.getMonthValue());
-        if (reports.isEmpty()) return 0;
+    public Money getTotalProfitForMonth(YearMonth yearMonth) {
+        return getPeriodSummary(yearMonth).getTotalProfit();
+    }
 
-        double totalSales = reports.stream().mapToDouble(SalesReport::getTotalSales).sum();
-        int totalTransactions = reports.stream().mapToInt(SalesReport::getTotalTransactions).sum();
+    public double getProfitMarginForMonth(YearMonth yearMonth) {
+        return getPeriodSummary(yearMonth).getProfitMargin();
+    }
 
-        if (totalTransactions == 0) return 0;
-        return totalSales / totalTransactions;
+    public Money getMonthlyAverageTransactionValue(YearMonth yearMonth) {
+        return getPeriodSummary(yearMonth).getAverageTransactionValue();
     }
 
-    public double getYearlySales(int year) {
-        return getAllSalesReports().stream()
-            .filter(report -> report.getSaleDate().getYear() == year)
-            .mapToDouble(SalesReport::getTotalSales)
-            .sum();
+    /**
+     * All-time sales and transaction count from the year rollups.
+     */
+    public InvoiceAggregate getAllTimeTotals() {
+        return salesReportDAO.getAllTimeTotals();
     }
 
-    public double getYearlyProfit(int year) {
-        return getAllSalesReports().stream()
-            .filter(report -> report.getSaleDate().getYear() == year)
-            .mapToDouble(SalesReport::getTotalProfit)
-            .sum();
+    public Money getYearlySales(int year) {
+        return getPeriodSummary(Year.of(year)).getTotalSales();
+    }
+
+    public Money getYearlyProfit(int year) {
+        return getPeriodSummary(Year.of(year)).getTotalProfit();
     }
 
     public SalesReport getTopSalesDay(LocalDate startDate, LocalDate endDate) {
         return getSalesReportsByDateRange(startDate, endDate).stream()
-            .max((r1, r2) -> Double.compare(r1.getTotalSales(), r2.getTotalSales()))
+            .max(Comparator.comparing(SalesReport::getTotalSales))
             .orElse(null);
     }
 
     public SalesReport getTopProfitDay(LocalDate startDate, LocalDate endDate) {
         return getSalesReportsByDateRange(startDate, endDate).stream()
-            .max((r1, r2) -> Double.compare(r1.getTotalProfit(), r2.getTotalProfit()))
+            .max(Comparator.comparing(SalesReport::getTotalProfit))
             .orElse(null);
     }
+
+    // Async variants - run on virtual threads via ServiceExecutor
+
+    public CompletableFuture<List<SalesReport>> getSalesReportsByDateRangeAsync(LocalDate startDate, LocalDate endDate) {
+        return ServiceExecutor.supply(() -> getSalesReportsByDateRange(startDate, endDate));
+    }
+
+    public CompletableFuture<PeriodSummary> getPeriodSummaryAsync(YearMonth yearMonth) {
+        return ServiceExecutor.supply(() -> getPeriodSummary(yearMonth));
+    }
+
+    public CompletableFuture<PeriodSummary> getPeriodSummaryAsync(Year year) {
+        return ServiceExecutor.supply(() -> getPeriodSummary(year));
+    }
 }
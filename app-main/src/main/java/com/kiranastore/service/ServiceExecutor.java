@@ -0,0 +1,56 @@
+package com.kiranastore.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Runs service calls on virtual threads for the async service methods. Blocking JDBC
+ * calls park the virtual thread rather than a platform thread, so every call gets its
+ * own thread and the connection pool is the only limit on concurrency.
+ */
+public final class ServiceExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceExecutor.class);
+    private static final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private ServiceExecutor() {
+    }
+
+    /**
+     * Runs a read on a virtual thread. Cancelling the returned future interrupts the thread.
+     */
+    public static <T> CompletableFuture<T> supply(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Future<?> running = executor.submit(() -> {
+            try {
+                future.complete(task.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        future.whenComplete((value, error) -> {
+            if (future.isCancelled()) {
+                running.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Runs a write on a virtual thread. Cancelling the returned future only discards the
+     * result; the task itself always runs to completion so a transaction is never cut short.
+     */
+    public static <T> CompletableFuture<T> supplyDetached(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    public static void shutdown() {
+        executor.shutdownNow();
+        logger.info("Service executor shut down");
+    }
+}
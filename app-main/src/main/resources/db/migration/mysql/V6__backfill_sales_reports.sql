@@ -0,0 +1,21 @@
+-- sales_reports only had rows for days someone generated a report for, and since V4 each
+-- row is kept up to date per invoice, so older days are missing or hold only the invoices
+-- committed after the upgrade. Recompute every day from the invoices, then the rollups.
+DELETE FROM sales_reports;
+
+INSERT INTO sales_reports (sale_date, total_sales, total_profit, total_transactions)
+SELECT DATE(i.invoice_date), SUM(i.total_amount),
+       SUM(COALESCE((SELECT SUM((ii.unit_price - ii.unit_cost) * ii.quantity)
+                     FROM invoice_items ii WHERE ii.invoice_id = i.id), 0)),
+       COUNT(*)
+FROM invoices i GROUP BY DATE(i.invoice_date);
+
+DELETE FROM sales_rollups;
+
+INSERT INTO sales_rollups (period_type, period_start, total_sales, total_profit, total_transactions)
+SELECT 'M', DATE_FORMAT(sale_date, '%Y-%m-01'), SUM(total_sales), SUM(total_profit), SUM(total_transactions)
+FROM sales_reports GROUP BY DATE_FORMAT(sale_date, '%Y-%m-01');
+
+INSERT INTO sales_rollups (period_type, period_start, total_sales, total_profit, total_transactions)
+SELECT 'Y', DATE_FORMAT(sale_date, '%Y-01-01'), SUM(total_sales), SUM(total_profit), SUM(total_transactions)
+FROM sales_reports GROUP BY DATE_FORMAT(sale_date, '%Y-01-01');
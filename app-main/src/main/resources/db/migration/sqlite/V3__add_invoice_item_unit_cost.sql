@@ -0,0 +1,6 @@
+-- Snapshot the buying price on each invoice line so profit reflects the cost at sale time.
+ALTER TABLE invoice_items ADD COLUMN unit_cost DECIMAL(10,2) NOT NULL DEFAULT 0;
+
+-- Existing lines get the product's current buying price, the best figure available.
+UPDATE invoice_items SET unit_cost = COALESCE(
+    (SELECT p.buying_price FROM products p WHERE p.id = invoice_items.product_id), 0);
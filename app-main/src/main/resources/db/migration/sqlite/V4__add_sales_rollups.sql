@@ -0,0 +1,18 @@
+-- Month ('M') and year ('Y') totals maintained from sales_reports.
+-- period_start is the first day of the month or year.
+CREATE TABLE IF NOT EXISTS sales_rollups (
+    period_type CHAR(1) NOT NULL,
+    period_start DATE NOT NULL,
+    total_sales DECIMAL(14,2) NOT NULL DEFAULT 0,
+    total_profit DECIMAL(14,2) NOT NULL DEFAULT 0,
+    total_transactions INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (period_type, period_start)
+);
+
+INSERT INTO sales_rollups (period_type, period_start, total_sales, total_profit, total_transactions)
+SELECT 'M', strftime('%Y-%m-01', sale_date), SUM(total_sales), SUM(total_profit), SUM(total_transactions)
+FROM sales_reports GROUP BY strftime('%Y-%m-01', sale_date);
+
+INSERT INTO sales_rollups (period_type, period_start, total_sales, total_profit, total_transactions)
+SELECT 'Y', strftime('%Y-01-01', sale_date), SUM(total_sales), SUM(total_profit), SUM(total_transactions)
+FROM sales_reports GROUP BY strftime('%Y-01-01', sale_date);
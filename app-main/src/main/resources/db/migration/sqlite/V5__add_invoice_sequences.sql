@@ -0,0 +1,6 @@
+-- Invoice number sequences, one row per invoice prefix. Counters reserve numbers
+-- in blocks by advancing reserved_through and then hand them out from memory.
+CREATE TABLE IF NOT EXISTS invoice_sequences (
+    prefix VARCHAR(20) NOT NULL PRIMARY KEY,
+    reserved_through BIGINT NOT NULL DEFAULT 0
+);